@@ -5,7 +5,7 @@ import java.lang.annotation.*;
 /**
  * 列定义<br/>
  * <p>
- * 支持String,Long,Integer,Double,Boolean,Date,BigDecimal类型数据的读写
+ * 支持String,Long,Integer,Double,Boolean,Date,BigDecimal,LocalDate,LocalDateTime,LocalTime,Instant,OffsetDateTime类型数据的读写
  *
  * @author Frank
  */
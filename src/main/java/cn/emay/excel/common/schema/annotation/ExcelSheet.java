@@ -75,6 +75,20 @@ public @interface ExcelSheet {
      */
     boolean isAutoWidth() default false;
 
+    /**
+     * 自适应宽度时全部估算宽度的数据行数，默认-1(全部行)<br/>
+     * <p>
+     * - writer:数据量大时只估算前N行，标题行总是估算；<br/>
+     */
+    int autoWidthSampleRows() default -1;
+
+    /**
+     * 自适应宽度时前N行之后的抽样间隔，默认0(不再估算)<br/>
+     * <p>
+     * - writer:前N行之后每隔多少行估算一行；<br/>
+     */
+    int autoWidthSampleStride() default 0;
+
     /**
      * 表头背景色<br/>
      * <p>
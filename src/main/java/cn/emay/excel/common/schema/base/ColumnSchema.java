@@ -3,7 +3,7 @@ package cn.emay.excel.common.schema.base;
 /**
  * 列定义<br/>
  * <p>
- * 支持String,Long,Integer,Double,Boolean,Date,BigDecimal类型数据的读写
+ * 支持String,Long,Integer,Double,Boolean,Date,BigDecimal,LocalDate,LocalDateTime,LocalTime,Instant,OffsetDateTime类型数据的读写
  *
  * @author Frank
  */
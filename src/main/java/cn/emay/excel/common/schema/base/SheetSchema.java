@@ -2,6 +2,8 @@ package cn.emay.excel.common.schema.base;
 
 import cn.emay.excel.common.schema.annotation.ExcelColumn;
 import cn.emay.excel.common.schema.annotation.ExcelSheet;
+import cn.emay.excel.common.schema.mapper.ExcelMapper;
+import cn.emay.excel.common.schema.mapper.ExcelMappers;
 import cn.emay.utils.clazz.ClassUtils;
 
 import java.lang.reflect.Field;
@@ -29,13 +31,18 @@ public class SheetSchema {
     private final Map<String, ColumnSchema> columnSchemas = new HashMap<>();
 
     /**
+     * 有编译期生成的映射器时由映射器传入定义，否则通过反射读取注解
+     *
      * @param dataClass 数据Class
      */
     public SheetSchema(Class<?> dataClass) {
         if (dataClass == null) {
             throw new IllegalArgumentException("dataClass is null");
         }
-        if (dataClass.isAnnotationPresent(ExcelSheet.class)) {
+        ExcelMapper<?> mapper = ExcelMappers.get(dataClass);
+        if (mapper != null) {
+            mapper.fillSchema(this);
+        } else if (dataClass.isAnnotationPresent(ExcelSheet.class)) {
             ExcelSheet sheet = dataClass.getAnnotation(ExcelSheet.class);
             this.setSheetSchemaParams(sheet);
             Field[] fields = ClassUtils.getAllFields(dataClass);
@@ -100,6 +107,8 @@ public class SheetSchema {
     public void setSheetSchemaParams(ExcelSheet sheet) {
         this.writeSchemaParams = new SheetWriteSchemaParams();
         this.writeSchemaParams.setAutoWidth(sheet.isAutoWidth());
+        this.writeSchemaParams.setAutoWidthSampleRows(sheet.autoWidthSampleRows());
+        this.writeSchemaParams.setAutoWidthSampleStride(sheet.autoWidthSampleStride());
         this.writeSchemaParams.setAutoWrap(sheet.isAutoWrap());
         this.writeSchemaParams.setCacheNumber(sheet.cacheNumber());
         this.writeSchemaParams.setContentRgbColor(sheet.contentRgbColor());
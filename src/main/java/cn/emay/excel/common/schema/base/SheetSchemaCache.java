@@ -0,0 +1,52 @@
+package cn.emay.excel.common.schema.base;
+
+import cn.emay.excel.common.schema.mapper.ExcelMappers;
+
+/**
+ * 表定义缓存<br/>
+ * 按数据类缓存注解解析出的表定义，以及字段访问器；缓存挂在数据类上(ClassValue)，随数据类卸载，线程安全<br/>
+ * ExcelReader、ExcelWriter按数据类读写时自动使用；返回的表定义为共享实例，不要修改，需要修改时请自行new SheetSchema(dataClass)
+ *
+ * @author Frank
+ */
+public class SheetSchemaCache {
+
+    /**
+     * 按数据类缓存的表定义
+     */
+    private static final ClassValue<SheetSchema> SCHEMAS = new ClassValue<SheetSchema>() {
+        @Override
+        protected SheetSchema computeValue(Class<?> type) {
+            return new SheetSchema(type);
+        }
+    };
+
+    /**
+     * 获取数据类的表定义(共享实例，不要修改)
+     *
+     * @param dataClass 数据Class
+     * @return 表定义
+     */
+    public static SheetSchema get(Class<?> dataClass) {
+        if (dataClass == null) {
+            throw new IllegalArgumentException("dataClass is null");
+        }
+        return SCHEMAS.get(dataClass);
+    }
+
+    /**
+     * 预热：提前解析数据类的表定义和字段访问器，避免首次读写时解析
+     *
+     * @param dataClasses 数据Class
+     */
+    public static void warmUp(Class<?>... dataClasses) {
+        if (dataClasses == null) {
+            return;
+        }
+        for (Class<?> dataClass : dataClasses) {
+            get(dataClass);
+            ExcelMappers.getAccessors(dataClass);
+        }
+    }
+
+}
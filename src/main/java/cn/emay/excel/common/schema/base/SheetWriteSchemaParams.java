@@ -36,6 +36,20 @@ public class SheetWriteSchemaParams {
      */
     private boolean isAutoWidth = true;
 
+    /**
+     * 自适应宽度时全部估算宽度的数据行数，默认-1(全部行)<br/>
+     * <p>
+     * - writer:数据量大时只估算前N行，标题行总是估算；<br/>
+     */
+    private int autoWidthSampleRows = -1;
+
+    /**
+     * 自适应宽度时前N行之后的抽样间隔，默认0(不再估算)<br/>
+     * <p>
+     * - writer:前N行之后每隔多少行估算一行；<br/>
+     */
+    private int autoWidthSampleStride = 0;
+
     /**
      * 表头背景色<br/>
      * <p>
@@ -137,6 +151,28 @@ public class SheetWriteSchemaParams {
         this.isAutoWidth = isAutoWidth;
     }
 
+    public int getAutoWidthSampleRows() {
+        return autoWidthSampleRows;
+    }
+
+    /**
+     * @param autoWidthSampleRows 自适应宽度时全部估算宽度的数据行数，小于0为全部行；
+     */
+    public void setAutoWidthSampleRows(int autoWidthSampleRows) {
+        this.autoWidthSampleRows = autoWidthSampleRows;
+    }
+
+    public int getAutoWidthSampleStride() {
+        return autoWidthSampleStride;
+    }
+
+    /**
+     * @param autoWidthSampleStride 自适应宽度时前N行之后每隔多少行估算一行，小于等于0为不再估算；
+     */
+    public void setAutoWidthSampleStride(int autoWidthSampleStride) {
+        this.autoWidthSampleStride = autoWidthSampleStride;
+    }
+
     public int[] getTitleRgbColor() {
         return titleRgbColor;
     }
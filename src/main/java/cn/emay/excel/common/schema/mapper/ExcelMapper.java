@@ -0,0 +1,45 @@
+package cn.emay.excel.common.schema.mapper;
+
+import cn.emay.excel.common.schema.base.SheetSchema;
+import cn.emay.excel.utils.FieldAccessor;
+
+/**
+ * 数据映射器<br/>
+ * 由{@link ExcelMapperProcessor}在编译期为{@link cn.emay.excel.common.schema.annotation.ExcelSheet}数据类生成，
+ * 类名为数据类名(内部类以_连接外部类名)加{@link ExcelMappers#SUFFIX}，与数据类同包；<br/>
+ * 存在映射器时，定义的构建、数据的创建和字段读写都不再使用反射
+ *
+ * @param <D> 数据
+ * @author Frank
+ */
+public interface ExcelMapper<D> {
+
+    /**
+     * 获取数据Class
+     *
+     * @return 数据Class
+     */
+    Class<D> getDataClass();
+
+    /**
+     * 传入注解中的表定义和列定义
+     *
+     * @param schema 表定义
+     */
+    void fillSchema(SheetSchema schema);
+
+    /**
+     * 新建一个数据实例
+     *
+     * @return 数据
+     */
+    D newData();
+
+    /**
+     * 获取所有字段的访问器(顺序与反射获取的字段一致：先本类，后父类)
+     *
+     * @return 字段访问器
+     */
+    FieldAccessor[] getAccessors();
+
+}
@@ -0,0 +1,423 @@
+package cn.emay.excel.common.schema.mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 数据映射器注解处理器<br/>
+ * 为{@link cn.emay.excel.common.schema.annotation.ExcelSheet}数据类生成{@link ExcelMapper}：
+ * 直接调用构造方法新建数据，字段可访问时直接读写，否则使用同名getter/setter，都不可用时该字段仍使用反射；<br/>
+ * 注意：私有字段经过getter/setter读写，setter中的逻辑会被执行(未生成映射器时反射直接读写字段)；<br/>
+ * 可选使用，未注册为服务，需要在编译参数中指定(如 -processor cn.emay.excel.common.schema.mapper.ExcelMapperProcessor，
+ * 或maven-compiler-plugin的annotationProcessors)；私有、抽象、非静态内部的数据类不生成
+ *
+ * @author Frank
+ */
+@SupportedAnnotationTypes(ExcelMapperProcessor.EXCEL_SHEET)
+public class ExcelMapperProcessor extends AbstractProcessor {
+
+    /**
+     * 表定义注解
+     */
+    static final String EXCEL_SHEET = "cn.emay.excel.common.schema.annotation.ExcelSheet";
+    /**
+     * 列定义注解
+     */
+    private static final String EXCEL_COLUMN = "cn.emay.excel.common.schema.annotation.ExcelColumn";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement sheetAnnotation = processingEnv.getElementUtils().getTypeElement(EXCEL_SHEET);
+        if (sheetAnnotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(sheetAnnotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            String reason = checkType(type);
+            if (reason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "skip ExcelMapper: " + reason, type);
+                continue;
+            }
+            try {
+                write(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write ExcelMapper error: " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查数据类是否可以生成映射器
+     *
+     * @param type 数据类
+     * @return 不能生成的原因[可以生成则为空]
+     */
+    private String checkType(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "abstract class";
+        }
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local class";
+            }
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return "private class";
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) {
+                return "inner class";
+            }
+        }
+        return null;
+    }
+
+    private void write(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String mapperName = mapperSimpleName(type);
+        String dataName = erasure(type.asType());
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("/**\n * ").append(dataName).append(" 的数据映射器，由 ExcelMapperProcessor 生成，请勿修改\n */\n");
+        code.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        code.append("public final class ").append(mapperName).append(" implements cn.emay.excel.common.schema.mapper.ExcelMapper<").append(dataName).append("> {\n\n");
+        code.append("    private static final cn.emay.excel.utils.FieldAccessor[] ACCESSORS = {\n");
+        List<VariableElement> fields = allFields(type);
+        for (VariableElement field : fields) {
+            writeAccessor(code, type, packageName, dataName, field);
+        }
+        code.append("    };\n\n");
+
+        code.append("    @Override\n    public Class<").append(dataName).append("> getDataClass() {\n");
+        code.append("        return ").append(dataName).append(".class;\n    }\n\n");
+
+        code.append("    @Override\n    public void fillSchema(cn.emay.excel.common.schema.base.SheetSchema schema) {\n");
+        writeSchema(code, type, fields);
+        code.append("    }\n\n");
+
+        code.append("    @Override\n    public ").append(dataName).append(" newData() {\n");
+        if (hasAccessibleConstructor(type, packageName)) {
+            code.append("        return new ").append(dataName).append("();\n");
+        } else {
+            code.append("        return cn.emay.excel.utils.ExcelUtils.newData(").append(dataName).append(".class);\n");
+        }
+        code.append("    }\n\n");
+
+        code.append("    @Override\n    public cn.emay.excel.utils.FieldAccessor[] getAccessors() {\n");
+        code.append("        return ACCESSORS.clone();\n    }\n\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(code.toString());
+        }
+    }
+
+    /**
+     * 写入表定义和列定义
+     */
+    private void writeSchema(StringBuilder code, TypeElement type, List<VariableElement> fields) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> sheet = annotationValues(type, EXCEL_SHEET);
+        if (sheet == null) {
+            return;
+        }
+        code.append("        cn.emay.excel.common.schema.base.SheetWriteSchemaParams writeParams = new cn.emay.excel.common.schema.base.SheetWriteSchemaParams(");
+        code.append(literal(sheet, "writeSheetName")).append(", ");
+        code.append(literal(sheet, "isWriteTile")).append(", ");
+        code.append(literal(sheet, "cacheNumber")).append(", ");
+        code.append(literal(sheet, "isAutoWidth")).append(", ");
+        code.append(literal(sheet, "titleRgbColor")).append(", ");
+        code.append(literal(sheet, "contentRgbColor")).append(", ");
+        code.append(literal(sheet, "isNeedBorder")).append(", ");
+        code.append(literal(sheet, "isAutoWrap")).append(");\n");
+        code.append("        writeParams.setAutoWidthSampleRows(").append(literal(sheet, "autoWidthSampleRows")).append(");\n");
+        code.append("        writeParams.setAutoWidthSampleStride(").append(literal(sheet, "autoWidthSampleStride")).append(");\n");
+        code.append("        schema.setSheetWriteSchemaParams(writeParams);\n");
+        code.append("        schema.setSheetWriteSchemaParams(new cn.emay.excel.common.schema.base.SheetReadSchemaParams(");
+        code.append(literal(sheet, "readTitleRowIndex")).append(", ");
+        code.append(literal(sheet, "readDataStartRowIndex")).append(", ");
+        code.append(literal(sheet, "readDataEndRowIndex")).append(", ");
+        code.append(literal(sheet, "readColumnBy")).append("));\n");
+        for (VariableElement field : fields) {
+            Map<? extends ExecutableElement, ? extends AnnotationValue> column = annotationValues(field, EXCEL_COLUMN);
+            if (column == null) {
+                continue;
+            }
+            code.append("        schema.setColumnSchema(").append(stringLiteral(field.getSimpleName().toString()));
+            code.append(", new cn.emay.excel.common.schema.base.ColumnSchema(");
+            code.append(literal(column, "index")).append(", ");
+            code.append(literal(column, "title")).append(", ");
+            code.append(literal(column, "express")).append("));\n");
+        }
+    }
+
+    /**
+     * 写入字段访问器
+     */
+    private void writeAccessor(StringBuilder code, TypeElement type, String packageName, String dataName, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String fieldType = erasure(field.asType());
+        String getter = null;
+        String setter = null;
+        if (isAccessible(field, packageName)) {
+            getter = "((" + dataName + ") data)." + name;
+            setter = "((" + dataName + ") data)." + name + " = ";
+        } else {
+            ExecutableElement get = findMethod(type, packageName, "get" + capitalize(name), null, field.asType());
+            if (get == null && field.asType().getKind() == TypeKind.BOOLEAN) {
+                get = findMethod(type, packageName, "is" + capitalize(name), null, field.asType());
+            }
+            ExecutableElement set = findMethod(type, packageName, "set" + capitalize(name), field.asType(), null);
+            if (get != null && set != null) {
+                getter = "((" + dataName + ") data)." + get.getSimpleName() + "()";
+                setter = "((" + dataName + ") data)." + set.getSimpleName() + "(";
+            }
+        }
+        if (getter == null || field.getModifiers().contains(Modifier.FINAL)) {
+            code.append("        cn.emay.excel.utils.FieldAccessor.of(").append(dataName).append(".class, ").append(stringLiteral(name)).append("),\n");
+            return;
+        }
+        boolean call = setter.endsWith("(");
+        String end = call ? ");" : ";";
+        code.append("        new cn.emay.excel.utils.FieldAccessor(").append(stringLiteral(name)).append(", ").append(fieldType).append(".class) {\n");
+        code.append("            @Override\n            public Object get(Object data) {\n");
+        code.append("                return ").append(getter).append(";\n            }\n\n");
+        code.append("            @Override\n            public void set(Object data, Object value) {\n");
+        code.append("                ").append(setter).append("(").append(boxed(field.asType())).append(") value").append(end).append("\n            }\n");
+        String primitive = primitiveKind(field.asType());
+        if (primitive != null) {
+            String method = "set" + capitalize(primitive);
+            code.append("\n            @Override\n            public void ").append(method).append("(Object data, ").append(primitive).append(" value) {\n");
+            code.append("                ").append(setter).append("value").append(end).append("\n            }\n");
+        }
+        code.append("        },\n");
+    }
+
+    /**
+     * 获取本类及父类的所有非静态字段(先本类，后父类)
+     */
+    private List<VariableElement> allFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeElement current = type;
+        while (current != null && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)) {
+                    fields.add(field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return fields;
+    }
+
+    private boolean hasAccessibleConstructor(TypeElement type, String packageName) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return isAccessible(constructor, packageName);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查找可访问的方法
+     *
+     * @param parameter  参数类型(为空则无参数)
+     * @param returnType 返回类型(为空则不检查)
+     */
+    private ExecutableElement findMethod(TypeElement type, String packageName, String name, TypeMirror parameter, TypeMirror returnType) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (!method.getSimpleName().contentEquals(name) || method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method, packageName)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (parameter == null ? !parameters.isEmpty() : parameters.size() != 1 || !sameType(parameters.get(0).asType(), parameter)) {
+                continue;
+            }
+            if (returnType != null && !sameType(method.getReturnType(), returnType)) {
+                continue;
+            }
+            return method;
+        }
+        return null;
+    }
+
+    /**
+     * 成员是否可以从生成的映射器(与数据类同包)访问
+     */
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        PackageElement memberPackage = processingEnv.getElementUtils().getPackageOf(member);
+        return memberPackage.getQualifiedName().contentEquals(packageName);
+    }
+
+    private boolean sameType(TypeMirror a, TypeMirror b) {
+        return processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(a), processingEnv.getTypeUtils().erasure(b));
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return erasure(type);
+    }
+
+    /**
+     * 获取可以不装箱写入的基本类型(int/long/double/boolean及其包装类型)
+     *
+     * @return 基本类型名[不支持则为空]
+     */
+    private String primitiveKind(TypeMirror type) {
+        TypeKind kind = type.getKind();
+        if (!kind.isPrimitive()) {
+            try {
+                kind = processingEnv.getTypeUtils().unboxedType(type).getKind();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        switch (kind) {
+            case INT:
+                return "int";
+            case LONG:
+                return "long";
+            case DOUBLE:
+                return "double";
+            case BOOLEAN:
+                return "boolean";
+            default:
+                return null;
+        }
+    }
+
+    private Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 注解属性值转为Java字面量
+     */
+    private String literal(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return literal(entry.getValue().getValue());
+            }
+        }
+        throw new IllegalArgumentException("annotation has no value[" + name + "]");
+    }
+
+    private String literal(Object value) {
+        if (value instanceof String) {
+            return stringLiteral((String) value);
+        }
+        if (value instanceof List) {
+            StringBuilder array = new StringBuilder("new int[]{");
+            List<?> items = (List<?>) value;
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    array.append(", ");
+                }
+                array.append(literal(((AnnotationValue) items.get(i)).getValue()));
+            }
+            return array.append("}").toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private String stringLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append("\"").toString();
+    }
+
+    /**
+     * 映射器类名(内部类以_连接外部类名)
+     */
+    private String mapperSimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append(ExcelMappers.SUFFIX).toString();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+}
@@ -0,0 +1,116 @@
+package cn.emay.excel.common.schema.mapper;
+
+import cn.emay.excel.utils.FieldAccessor;
+import cn.emay.utils.clazz.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * 数据映射器查找<br/>
+ * 每个数据类只查找一次；没有生成映射器的数据类继续使用反射
+ *
+ * @author Frank
+ */
+public class ExcelMappers {
+
+    /**
+     * 映射器类名后缀
+     */
+    public static final String SUFFIX = "_ExcelMapper";
+
+    /**
+     * 没有映射器
+     */
+    private static final Object NONE = new Object();
+
+    /**
+     * 按数据类缓存的映射器
+     */
+    private static final ClassValue<Object> MAPPERS = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            ExcelMapper<?> mapper = load(type);
+            return mapper == null ? NONE : mapper;
+        }
+    };
+
+    /**
+     * 按数据类缓存的反射字段访问器(没有映射器时使用)
+     */
+    private static final ClassValue<FieldAccessor[]> REFLECT_ACCESSORS = new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> type) {
+            Field[] fields = ClassUtils.getAllFields(type);
+            FieldAccessor[] accessors = new FieldAccessor[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                accessors[i] = FieldAccessor.of(fields[i]);
+            }
+            return accessors;
+        }
+    };
+
+    /**
+     * 获取数据类的映射器
+     *
+     * @param dataClass 数据Class
+     * @return 映射器[没有生成则为空]
+     */
+    @SuppressWarnings("unchecked")
+    public static <D> ExcelMapper<D> get(Class<D> dataClass) {
+        if (dataClass == null) {
+            return null;
+        }
+        Object mapper = MAPPERS.get(dataClass);
+        return mapper == NONE ? null : (ExcelMapper<D>) mapper;
+    }
+
+    /**
+     * 获取数据类所有字段的访问器，有映射器时使用映射器，否则使用反射(按数据类缓存)
+     *
+     * @param dataClass 数据Class
+     * @return 字段访问器
+     */
+    public static FieldAccessor[] getAccessors(Class<?> dataClass) {
+        ExcelMapper<?> mapper = get(dataClass);
+        if (mapper != null) {
+            return mapper.getAccessors();
+        }
+        return REFLECT_ACCESSORS.get(dataClass).clone();
+    }
+
+    /**
+     * 获取映射器类名
+     *
+     * @param dataClass 数据Class
+     * @return 映射器类名
+     */
+    public static String getMapperName(Class<?> dataClass) {
+        String name = dataClass.getName();
+        int dot = name.lastIndexOf('.');
+        return name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + SUFFIX;
+    }
+
+    private static ExcelMapper<?> load(Class<?> dataClass) {
+        if (dataClass.isPrimitive() || dataClass.isArray() || dataClass.getClassLoader() == null) {
+            return null;
+        }
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(getMapperName(dataClass), true, dataClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!ExcelMapper.class.isAssignableFrom(mapperClass) || Modifier.isAbstract(mapperClass.getModifiers())) {
+            return null;
+        }
+        ExcelMapper<?> mapper;
+        try {
+            mapper = (ExcelMapper<?>) mapperClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException(mapperClass.getName() + " can't be new Instance", e);
+        }
+        return dataClass.equals(mapper.getDataClass()) ? mapper : null;
+    }
+
+}
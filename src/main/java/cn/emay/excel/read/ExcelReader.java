@@ -1,7 +1,7 @@
 package cn.emay.excel.read;
 
 import cn.emay.excel.common.ExcelVersion;
-import cn.emay.excel.common.schema.base.SheetSchema;
+import cn.emay.excel.common.schema.base.SheetSchemaCache;
 import cn.emay.excel.read.core.BaseReader;
 import cn.emay.excel.read.core.XlsReader;
 import cn.emay.excel.read.core.XlsxReader;
@@ -95,7 +95,7 @@ public class ExcelReader {
      * @param dataHandler 数据处理器
      */
     public static <D> void readBySheetName(String excelPath, String sheetName, SheetDataHandler<D> dataHandler) {
-        SchemaSheetReader<D> handler = new SchemaSheetReader<>(new SheetSchema(dataHandler.getDataClass()), dataHandler);
+        SchemaSheetReader<D> handler = new SchemaSheetReader<>(SheetSchemaCache.get(dataHandler.getDataClass()), dataHandler);
         readBySheetName(excelPath, sheetName, handler);
     }
 
@@ -114,7 +114,7 @@ public class ExcelReader {
         Map<String, SheetReader> readers = new HashMap<>(handlersByName.size());
         for (String name : handlersByName.keySet()) {
             SheetDataHandler<?> handler = handlersByName.get(name);
-            SchemaSheetReader<?> reader = new SchemaSheetReader(new SheetSchema(handler.getDataClass()), handler);
+            SchemaSheetReader<?> reader = new SchemaSheetReader(SheetSchemaCache.get(handler.getDataClass()), handler);
             readers.put(name, reader);
         }
         readBySheetNames(excelPath, readers);
@@ -129,7 +129,7 @@ public class ExcelReader {
      * @param dataHandler 数据处理器
      */
     public static <D> void readBySheetIndex(String excelPath, int sheetIndex, SheetDataHandler<D> dataHandler) {
-        SchemaSheetReader<D> handler = new SchemaSheetReader<>(new SheetSchema(dataHandler.getDataClass()), dataHandler);
+        SchemaSheetReader<D> handler = new SchemaSheetReader<>(SheetSchemaCache.get(dataHandler.getDataClass()), dataHandler);
         readBySheetIndex(excelPath, sheetIndex, handler);
     }
 
@@ -148,7 +148,7 @@ public class ExcelReader {
         Map<Integer, SheetReader> readers = new HashMap<>(handlersByIndex.size());
         for (Integer index : handlersByIndex.keySet()) {
             SheetDataHandler<?> handler = handlersByIndex.get(index);
-            SchemaSheetReader<?> reader = new SchemaSheetReader(new SheetSchema(handler.getDataClass()), handler);
+            SchemaSheetReader<?> reader = new SchemaSheetReader(SheetSchemaCache.get(handler.getDataClass()), handler);
             readers.put(index, reader);
         }
         readBySheetIndexs(excelPath, readers);
@@ -168,7 +168,7 @@ public class ExcelReader {
         SheetReader[] readers = new SheetReader[handlers.length];
         for (int i = 0; i < handlers.length; i++) {
             SheetDataHandler<?> handler = handlers[i];
-            readers[i] = new SchemaSheetReader(new SheetSchema(handler.getDataClass()), handler);
+            readers[i] = new SchemaSheetReader(SheetSchemaCache.get(handler.getDataClass()), handler);
         }
         readByOrder(excelPath, readers);
     }
@@ -348,7 +348,7 @@ public class ExcelReader {
      */
     public static <D> List<D> readFirstSheet(InputStream is, ExcelVersion version, Class<D> dataClass) {
         ReturnSchemaDataReader<D> dataHandler = new ReturnSchemaDataReader<>(dataClass);
-        SchemaSheetReader<D> handler = new SchemaSheetReader<>(new SheetSchema(dataHandler.getDataClass()), dataHandler);
+        SchemaSheetReader<D> handler = new SchemaSheetReader<>(SheetSchemaCache.get(dataHandler.getDataClass()), dataHandler);
         readFirstSheet(is, version, handler);
         return dataHandler.getResult();
     }
@@ -574,6 +574,9 @@ public class ExcelReader {
      * @return 数据
      */
     public static <T> List<T> readByCoordinate(Class<T> dataClass, Workbook workbook, int[]... coordinates) {
+        if (workbook == null) {
+            throw new IllegalArgumentException("workbook is null");
+        }
         if (coordinates == null) {
             throw new IllegalArgumentException("coordinates is null");
         }
@@ -603,6 +606,7 @@ public class ExcelReader {
             oneRowMap.put(columnIndex, null);
         }
         try (Workbook workbookNew = workbook) {
+            ExcelReadUtils.bindFormulaEvaluator(workbookNew);
             int maxSheetIndex = workbookNew.getNumberOfSheets() - 1;
             for (Integer sheetIndex : dataByCoordinate.keySet()) {
                 if (sheetIndex > maxSheetIndex) {
@@ -632,6 +636,7 @@ public class ExcelReader {
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         } finally {
+            ExcelReadUtils.unbindFormulaEvaluator();
             if (workbook != null) {
                 if (SXSSFWorkbook.class.isAssignableFrom(workbook.getClass())) {
                     ((SXSSFWorkbook) workbook).dispose();
@@ -1,5 +1,6 @@
 package cn.emay.excel.read.core;
 
+import cn.emay.excel.read.reader.AbortableSheetReader;
 import cn.emay.excel.read.reader.SheetReader;
 
 import java.io.File;
@@ -200,4 +201,24 @@ public abstract class BaseReader {
      */
     public abstract void read(File file, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName);
 
+    /**
+     * 中止sheet读取<br/>
+     * 处理器支持中止时回调，中止时的异常作为原异常的被抑制异常
+     *
+     * @param handler    Sheet读取处理器
+     * @param sheetIndex sheet序号
+     * @param sheetName  sheet名字
+     * @param cause      导致中止的异常
+     */
+    protected static void abortSheet(SheetReader handler, int sheetIndex, String sheetName, Throwable cause) {
+        if (!(handler instanceof AbortableSheetReader)) {
+            return;
+        }
+        try {
+            ((AbortableSheetReader) handler).abort(sheetIndex, sheetName);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
 }
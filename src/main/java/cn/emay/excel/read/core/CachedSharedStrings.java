@@ -0,0 +1,142 @@
+package cn.emay.excel.read.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带LRU缓存的共享字符串表<br/>
+ * 每个序号只解析一次，重复出现的字符串直接从有界缓存返回，并统计命中/未命中次数；<br/>
+ * 缓存按序号分段，每段是独立加锁的LRU，并行读取多个sheet时互不阻塞，各段容量之和等于最大缓存数量；<br/>
+ * 被缓存的共享字符串表需要支持并发读取
+ *
+ * @author Frank
+ */
+public class CachedSharedStrings implements XlsxSharedStrings {
+
+    /**
+     * 最大分段数
+     */
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * 被缓存的共享字符串表
+     */
+    private final XlsxSharedStrings sharedStrings;
+    /**
+     * 按序号取模分段的LRU缓存
+     */
+    private final List<Map<Integer, String>> stripes;
+    /**
+     * 命中次数
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * 未命中次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param sharedStrings 被缓存的共享字符串表
+     * @param maxSize       最大缓存数量
+     */
+    public CachedSharedStrings(XlsxSharedStrings sharedStrings, int maxSize) {
+        if (sharedStrings == null) {
+            throw new IllegalArgumentException("sharedStrings is null");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.sharedStrings = sharedStrings;
+        int count = Math.min(MAX_STRIPES, maxSize);
+        this.stripes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // 余数分给前几段，总容量正好为maxSize
+            stripes.add(newStripe(maxSize / count + (i < maxSize % count ? 1 : 0)));
+        }
+    }
+
+    /**
+     * 创建一段LRU缓存
+     *
+     * @param maxSize 本段最大缓存数量
+     * @return LRU缓存
+     */
+    private static Map<Integer, String> newStripe(final int maxSize) {
+        return new LinkedHashMap<Integer, String>(Math.min(maxSize, 1024) * 4 / 3 + 1, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return sharedStrings.size();
+    }
+
+    @Override
+    public String getString(int index) {
+        Map<Integer, String> stripe = stripes.get((index & Integer.MAX_VALUE) % stripes.size());
+        String value;
+        synchronized (stripe) {
+            value = stripe.get(index);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = sharedStrings.getString(index);
+        synchronized (stripe) {
+            stripe.put(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * 获取当前缓存的字符串数量
+     *
+     * @return 缓存数量
+     */
+    public int getCachedCount() {
+        int count = 0;
+        for (Map<Integer, String> stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 获取未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sharedStrings.close();
+    }
+
+}
@@ -0,0 +1,146 @@
+package cn.emay.excel.read.core;
+
+import cn.emay.excel.utils.DateCodec;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Date;
+
+/**
+ * 单元格数字格式<br/>
+ * 一个样式对应的数字格式(格式序号、格式字符串、是否日期、日期系统)，样式只解析一次；<br/>
+ * 格式化交给DataFormatter.formatRawCellContents，编译好的Format由DataFormatter按格式字符串缓存；<br/>
+ * DataFormatter非线程安全，每个sheet解析各自持有
+ *
+ * @author Frank
+ */
+public class CellNumberFormat {
+
+    /**
+     * 格式序号
+     */
+    private final int formatIndex;
+    /**
+     * 格式字符串
+     */
+    private final String formatString;
+    /**
+     * 是否日期格式
+     */
+    private final boolean date;
+    /**
+     * 是否1904日期系统
+     */
+    private final boolean date1904;
+    /**
+     * 格式化器
+     */
+    private final DataFormatter formatter;
+
+    private CellNumberFormat(int formatIndex, String formatString, boolean date, boolean date1904, DataFormatter formatter) {
+        this.formatIndex = formatIndex;
+        this.formatString = formatString;
+        this.date = date;
+        this.date1904 = date1904;
+        this.formatter = formatter;
+    }
+
+    /**
+     * 编译数字格式
+     *
+     * @param formatIndex  格式序号
+     * @param formatString 格式字符串
+     * @param formatter    格式化器
+     * @return 数字格式
+     */
+    public static CellNumberFormat compile(int formatIndex, String formatString, DataFormatter formatter) {
+        return compile(formatIndex, formatString, formatter, false);
+    }
+
+    /**
+     * 编译数字格式
+     *
+     * @param formatIndex  格式序号
+     * @param formatString 格式字符串
+     * @param formatter    格式化器
+     * @param date1904     是否1904日期系统
+     * @return 数字格式
+     */
+    public static CellNumberFormat compile(int formatIndex, String formatString, DataFormatter formatter, boolean date1904) {
+        if (formatString == null) {
+            throw new IllegalArgumentException("formatString is null");
+        }
+        if (formatter == null) {
+            throw new IllegalArgumentException("formatter is null");
+        }
+        return new CellNumberFormat(formatIndex, formatString, DateUtil.isADateFormat(formatIndex, formatString), date1904, formatter);
+    }
+
+    /**
+     * 按编译时的日期系统格式化数字
+     *
+     * @param value 数字
+     * @return 格式化后的字符串
+     */
+    public String format(double value) {
+        return format(value, date1904);
+    }
+
+    /**
+     * 按日期系统把数字转换为日期
+     *
+     * @param value 数字
+     * @return 日期[非法日期为空]
+     */
+    public Date toDate(double value) {
+        return DateCodec.toDate(value, date1904);
+    }
+
+    /**
+     * 格式化数字
+     *
+     * @param value    数字
+     * @param date1904 是否1904日期系统
+     * @return 格式化后的字符串
+     */
+    public String format(double value, boolean date1904) {
+        return formatter.formatRawCellContents(value, formatIndex, formatString, date1904);
+    }
+
+    /**
+     * 获取格式序号
+     *
+     * @return 格式序号
+     */
+    public int getFormatIndex() {
+        return formatIndex;
+    }
+
+    /**
+     * 获取格式字符串
+     *
+     * @return 格式字符串
+     */
+    public String getFormatString() {
+        return formatString;
+    }
+
+    /**
+     * 是否日期格式
+     *
+     * @return 是否日期格式
+     */
+    public boolean isDate() {
+        return date;
+    }
+
+    /**
+     * 是否1904日期系统
+     *
+     * @return 是否1904日期系统
+     */
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+}
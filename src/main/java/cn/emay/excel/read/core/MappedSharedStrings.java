@@ -0,0 +1,285 @@
+package cn.emay.excel.read.core;
+
+import org.apache.poi.util.SAXHelper;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于磁盘文件的共享字符串表<br/>
+ * 一次性流式解析sharedStrings.xml，写入临时文件(UTF-8数据文件 + 偏移量索引文件)后以内存映射方式按序号读取，<br/>
+ * 字符串不常驻堆内存，适用于共享字符串数量巨大的XLSX文件<br/>
+ * 使用完毕必须调用{@link #close()}删除临时文件
+ *
+ * @author Frank
+ */
+public class MappedSharedStrings implements XlsxSharedStrings {
+
+    /**
+     * 映射分段大小(1GB，8的倍数，保证偏移量不跨段)
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * 数据文件
+     */
+    private final File dataFile;
+    /**
+     * 偏移量文件
+     */
+    private final File offsetFile;
+    /**
+     * 数据文件通道(跨段字符串读取)
+     */
+    private RandomAccessFile dataAccess;
+    /**
+     * 偏移量文件通道
+     */
+    private RandomAccessFile offsetAccess;
+    /**
+     * 数据映射分段
+     */
+    private MappedByteBuffer[] dataSegments;
+    /**
+     * 偏移量映射分段
+     */
+    private MappedByteBuffer[] offsetSegments;
+    /**
+     * 字符串数量
+     */
+    private int size;
+
+    /**
+     * 解析sharedStrings.xml并生成临时文件
+     *
+     * @param is        sharedStrings.xml输入流
+     * @param directory 临时文件目录(为空则使用系统临时目录)
+     * @throws IOException IO异常
+     */
+    public MappedSharedStrings(InputStream is, File directory) throws IOException {
+        if (is == null) {
+            throw new IllegalArgumentException("InputStream is null");
+        }
+        this.dataFile = File.createTempFile("emay-excel-sst", ".data", directory);
+        this.offsetFile = File.createTempFile("emay-excel-sst", ".offset", directory);
+        try {
+            try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile), 64 * 1024));
+                 DataOutputStream offset = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(offsetFile), 64 * 1024))) {
+                SharedStringsWriter writer = new SharedStringsWriter(data, offset);
+                // 与POI一致使用加固的解析器：忽略外部实体、开启安全处理
+                XMLReader parser = SAXHelper.newXMLReader();
+                parser.setContentHandler(writer);
+                parser.parse(new InputSource(is));
+                this.size = writer.count;
+            }
+            this.dataAccess = new RandomAccessFile(dataFile, "r");
+            this.offsetAccess = new RandomAccessFile(offsetFile, "r");
+            this.dataSegments = map(dataAccess.getChannel());
+            this.offsetSegments = map(offsetAccess.getChannel());
+        } catch (SAXException | ParserConfigurationException e) {
+            close();
+            throw new IllegalArgumentException(e);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        long start = readOffset(index);
+        long end = readOffset(index + 1);
+        int length = (int) (end - start);
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        int segment = (int) (start / SEGMENT_SIZE);
+        int position = (int) (start % SEGMENT_SIZE);
+        if (position + (long) length <= SEGMENT_SIZE) {
+            ByteBuffer buffer = dataSegments[segment].duplicate();
+            buffer.position(position);
+            buffer.get(bytes);
+        } else {
+            readAcross(start, bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        dataSegments = null;
+        offsetSegments = null;
+        closeQuietly(dataAccess);
+        closeQuietly(offsetAccess);
+        delete(dataFile);
+        delete(offsetFile);
+    }
+
+    /**
+     * 读取偏移量
+     *
+     * @param index 序号
+     * @return 偏移量
+     */
+    private long readOffset(int index) {
+        long position = index * 8L;
+        return offsetSegments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+    }
+
+    /**
+     * 读取跨映射分段的字符串
+     *
+     * @param start 开始位置
+     * @param bytes 字节
+     */
+    private void readAcross(long start, byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        FileChannel channel = dataAccess.getChannel();
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IllegalArgumentException("shared strings file is truncated");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 分段映射文件
+     *
+     * @param channel 文件通道
+     * @return 映射分段
+     * @throws IOException IO异常
+     */
+    private static MappedByteBuffer[] map(FileChannel channel) throws IOException {
+        long length = channel.size();
+        int count = (int) Math.max(1, (length + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long position = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, length - position));
+        }
+        return segments;
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void delete(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * sharedStrings.xml解析处理器<br/>
+     * 每个si元素写入一条字符串：拼接其中的t(含r/t)，忽略注音rPh
+     *
+     * @author Frank
+     */
+    private static class SharedStringsWriter extends DefaultHandler {
+
+        private final DataOutputStream data;
+        private final DataOutputStream offset;
+        private final StringBuilder value = new StringBuilder();
+
+        private long position;
+        private int count;
+
+        private boolean siIsOpen;
+        private boolean tIsOpen;
+        private int phoneticDepth;
+
+        SharedStringsWriter(DataOutputStream data, DataOutputStream offset) throws IOException {
+            this.data = data;
+            this.offset = offset;
+            offset.writeLong(0L);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String name, Attributes attributes) {
+            String local = localName(name);
+            if ("si".equals(local)) {
+                siIsOpen = true;
+                phoneticDepth = 0;
+                value.setLength(0);
+            } else if ("rPh".equals(local)) {
+                phoneticDepth++;
+            } else if ("t".equals(local)) {
+                tIsOpen = siIsOpen && phoneticDepth == 0;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String name) throws SAXException {
+            String local = localName(name);
+            if ("si".equals(local)) {
+                siIsOpen = false;
+                write(XlsxReader.utfDecode(value));
+            } else if ("rPh".equals(local)) {
+                phoneticDepth--;
+            } else if ("t".equals(local)) {
+                tIsOpen = false;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (tIsOpen) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private void write(String str) throws SAXException {
+            try {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                data.write(bytes);
+                position += bytes.length;
+                offset.writeLong(position);
+                count++;
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        private static String localName(String name) {
+            int index = name.indexOf(':');
+            return index < 0 ? name : name.substring(index + 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package cn.emay.excel.read.core;
+
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+/**
+ * 基于POI SharedStringsTable的共享字符串表<br/>
+ * 全部字符串常驻堆内存
+ *
+ * @author Frank
+ */
+public class PoiSharedStrings implements XlsxSharedStrings {
+
+    /**
+     * POI共享字符串表
+     */
+    private final SharedStringsTable sharedStringsTable;
+
+    /**
+     * @param sharedStringsTable POI共享字符串表
+     */
+    public PoiSharedStrings(SharedStringsTable sharedStringsTable) {
+        if (sharedStringsTable == null) {
+            throw new IllegalArgumentException("sharedStringsTable is null");
+        }
+        this.sharedStringsTable = sharedStringsTable;
+    }
+
+    @Override
+    public int size() {
+        return sharedStringsTable.getItems().size();
+    }
+
+    @Override
+    public String getString(int index) {
+        return new XSSFRichTextString(sharedStringsTable.getEntryAt(index)).toString();
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -1,6 +1,9 @@
 package cn.emay.excel.read.core;
 
+import cn.emay.excel.read.reader.ProjectionSheetReader;
 import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.read.reader.SparseSheetReader;
+import cn.emay.excel.utils.ExcelReadUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -12,15 +15,44 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
- * XLS读取器
+ * XLS读取器<br/>
+ * 整个文件加载为HSSFWorkbook后读取，大文件可使用{@link XlsStreamReader}流式读取<br/>
+ * 公式单元格默认计算公式，可通过{@link #setFormulaResult(FormulaResult)}改为直接读取保存的计算结果
  *
  * @author Frank
  */
 public class XlsReader extends BaseReader {
 
+    /**
+     * 公式单元格的取值方式
+     */
+    private FormulaResult formulaResult = FormulaResult.EVALUATE;
+
+    /**
+     * 获取公式单元格的取值方式
+     *
+     * @return 公式单元格的取值方式
+     */
+    public FormulaResult getFormulaResult() {
+        return formulaResult;
+    }
+
+    /**
+     * 传入公式单元格的取值方式
+     *
+     * @param formulaResult 公式单元格的取值方式
+     */
+    public void setFormulaResult(FormulaResult formulaResult) {
+        if (formulaResult == null) {
+            throw new IllegalArgumentException("formulaResult is null");
+        }
+        this.formulaResult = formulaResult;
+    }
+
     @Override
     public void read(InputStream is, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) {
         if (is == null) {
@@ -131,23 +163,29 @@ public class XlsReader extends BaseReader {
         if (workbook == null) {
             throw new IllegalArgumentException("workbook is null");
         }
-        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-            Sheet sheet = workbook.getSheetAt(i);
-            if (sheet == null) {
-                continue;
-            }
-            String name = sheet.getSheetName();
-            SheetReader readHander = null;
-            if (handlersByIndex != null) {
-                readHander = handlersByIndex.get(i);
-            }
-            if (readHander == null && handlersByName != null) {
-                readHander = handlersByName.get(name);
+        // 整个Workbook共用一个公式计算器，已计算的单元格跨sheet复用
+        ExcelReadUtils.bindFormulaEvaluator(workbook, FormulaResult.CACHED.equals(formulaResult));
+        try {
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                Sheet sheet = workbook.getSheetAt(i);
+                if (sheet == null) {
+                    continue;
+                }
+                String name = sheet.getSheetName();
+                SheetReader readHander = null;
+                if (handlersByIndex != null) {
+                    readHander = handlersByIndex.get(i);
+                }
+                if (readHander == null && handlersByName != null) {
+                    readHander = handlersByName.get(name);
+                }
+                if (readHander == null) {
+                    continue;
+                }
+                readSheet(sheet, readHander);
             }
-            if (readHander == null) {
-                continue;
-            }
-            readSheet(sheet, readHander);
+        } finally {
+            ExcelReadUtils.unbindFormulaEvaluator();
         }
     }
 
@@ -164,28 +202,66 @@ public class XlsReader extends BaseReader {
         if (handler == null) {
             throw new IllegalArgumentException("handlers is null");
         }
+        ExcelReadUtils.bindFormulaEvaluator(sheet.getWorkbook(), FormulaResult.CACHED.equals(formulaResult));
+        try {
+            readRows(sheet, handler);
+        } finally {
+            ExcelReadUtils.unbindFormulaEvaluator();
+        }
+    }
+
+    /**
+     * 逐行读取Sheet
+     *
+     * @param sheet   sheet页
+     * @param handler Sheet读取处理器
+     */
+    private void readRows(Sheet sheet, SheetReader handler) {
         int index = sheet.getWorkbook().getSheetIndex(sheet);
         String name = sheet.getSheetName();
         handler.begin(index, name);
-        int startReadRowIndex = handler.getStartReadRowIndex();
-        int endReadRowIndex = handler.getEndReadRowIndex();
-        int begin = Math.max(startReadRowIndex, 0);
-        for (int j = begin; j <= sheet.getLastRowNum(); j++) {
-            if (endReadRowIndex >= 0 && j > endReadRowIndex) {
-                break;
-            }
-            Row row = sheet.getRow(j);
-            if (row == null) {
-                continue;
+        try {
+            ProjectionSheetReader projection = handler instanceof ProjectionSheetReader ? (ProjectionSheetReader) handler : null;
+            boolean sparse = handler instanceof SparseSheetReader;
+            int startReadRowIndex = handler.getStartReadRowIndex();
+            int endReadRowIndex = handler.getEndReadRowIndex();
+            int begin = Math.max(startReadRowIndex, 0);
+            for (int j = begin; j <= sheet.getLastRowNum(); j++) {
+                if (endReadRowIndex >= 0 && j > endReadRowIndex) {
+                    break;
+                }
+                Row row = sheet.getRow(j);
+                if (row == null) {
+                    continue;
+                }
+                handler.beginRow(j);
+                boolean[] readColumns = projection == null ? null : projection.getReadColumns(j);
+                if (sparse) {
+                    // 只遍历实际存在的单元格
+                    for (Iterator<Cell> cells = row.cellIterator(); cells.hasNext(); ) {
+                        Cell cell = cells.next();
+                        int k = cell.getColumnIndex();
+                        if (readColumns != null && (k >= readColumns.length || !readColumns[k])) {
+                            continue;
+                        }
+                        handler.handleXlsCell(j, k, cell);
+                    }
+                } else {
+                    for (int k = 0; k <= row.getLastCellNum(); k++) {
+                        if (readColumns != null && (k >= readColumns.length || !readColumns[k])) {
+                            continue;
+                        }
+                        Cell cell = row.getCell(k);
+                        handler.handleXlsCell(j, k, cell);
+                    }
+                }
+                handler.endRow(j);
             }
-            handler.beginRow(j);
-            for (int k = 0; k <= row.getLastCellNum(); k++) {
-                Cell cell = row.getCell(k);
-                handler.handleXlsCell(j, k, cell);
-            }
-            handler.endRow(j);
+            handler.end(index, name);
+        } catch (Throwable e) {
+            abortSheet(handler, index, name, e);
+            throw e;
         }
-        handler.end(index, name);
     }
 
     @Override
@@ -203,4 +279,20 @@ public class XlsReader extends BaseReader {
         }
     }
 
+    /**
+     * 公式单元格的取值方式
+     *
+     * @author Frank
+     */
+    public enum FormulaResult {
+        /**
+         * 通过FormulaEvaluator计算(同一Workbook共用计算器)
+         */
+        EVALUATE,
+        /**
+         * 直接读取文件中保存的上次计算结果，不计算公式
+         */
+        CACHED,
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,512 @@
+package cn.emay.excel.read.core;
+
+import cn.emay.excel.read.reader.ProjectionSheetReader;
+import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.read.reader.TypedSheetReader;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XLS流式读取器<br/>
+ * 基于POI事件模型逐条解析BIFF记录，不构建HSSFWorkbook，内存占用与行数无关<br/>
+ * 单元格不再以Cell对象回调，与XLSX一致：<br/>
+ * 1.普通读取处理器通过{@link SheetReader#handleXlsxCell(int, int, String)}接收格式化后的字符串；<br/>
+ * 2.{@link TypedSheetReader}直接接收数字、布尔、字符串；<br/>
+ * 3.{@link ProjectionSheetReader}未声明的列不回调<br/>
+ * 公式单元格取缓存的计算结果，空白单元格不回调，错误单元格回调空值
+ *
+ * @author Frank
+ */
+public class XlsStreamReader extends BaseReader {
+
+    @Override
+    public void read(InputStream is, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) {
+        if (is == null) {
+            throw new IllegalArgumentException("InputStream is null");
+        }
+        try (
+                InputStream isNew = is;
+                POIFSFileSystem fs = new POIFSFileSystem(isNew)
+        ) {
+            readFileSystem(fs, handlersByIndex, handlersByName);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public void read(File file, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) {
+        if (file == null) {
+            throw new IllegalArgumentException("File is null");
+        }
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            readFileSystem(fs, handlersByIndex, handlersByName);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 从POIFS文件系统中读取Excel表格<br/>
+     * 所有处理器依次进行匹配
+     *
+     * @param fs              POIFS文件系统
+     * @param handlersByIndex 按照Index匹配的Sheet读取处理器集合
+     * @param handlersByName  按照表名匹配的Sheet读取处理器集合
+     * @throws IOException IO异常
+     */
+    private void readFileSystem(POIFSFileSystem fs, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) throws IOException {
+        XlsRecordListener listener = new XlsRecordListener(handlersByIndex, handlersByName);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        try {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            listener.abort(e);
+            throw new IllegalArgumentException(e);
+        } catch (IOException | RuntimeException | Error e) {
+            listener.abort(e);
+            throw e;
+        }
+    }
+
+    /**
+     * BIFF记录监听器<br/>
+     * 工作簿全局记录中收集sheet、共享字符串、格式、日期系统，之后按sheet逐行回调读取处理器
+     *
+     * @author Frank
+     */
+    private static class XlsRecordListener extends AbortableHSSFListener {
+
+        /**
+         * 所有sheet都已读取完毕，终止解析
+         */
+        private static final short ABORT = 1;
+
+        /**
+         * 按照Index匹配的Sheet读取处理器集合
+         */
+        private final Map<Integer, SheetReader> handlersByIndex;
+        /**
+         * 按照表名匹配的Sheet读取处理器集合
+         */
+        private final Map<String, SheetReader> handlersByName;
+        /**
+         * 格式跟踪(只用于收集格式与样式记录)
+         */
+        private final FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(null);
+        /**
+         * 格式化器
+         */
+        private final DataFormatter formatter = new DataFormatter();
+        /**
+         * sheet记录(工作簿全局记录中出现的顺序)
+         */
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        /**
+         * 按BOF位置排序的sheet记录
+         */
+        private BoundSheetRecord[] orderedSheets;
+        /**
+         * 共享字符串表
+         */
+        private SSTRecord sst;
+        /**
+         * 是否1904日期系统
+         */
+        private boolean date1904;
+        /**
+         * 格式序号对应的数字格式(同一格式共用一个实例)
+         */
+        private final Map<Integer, CellNumberFormat> compiled = new HashMap<>();
+        /**
+         * 样式序号对应的数字格式(按需编译)
+         */
+        private CellNumberFormat[] numberFormats = new CellNumberFormat[64];
+
+        /**
+         * BOF嵌套深度(sheet中嵌入的图表等也有BOF/EOF)
+         */
+        private int depth;
+        /**
+         * 当前sheet序号(工作簿全局为-1)
+         */
+        private int sheetIndex = -1;
+        /**
+         * 尚未读取的sheet数量
+         */
+        private int remaining = -1;
+
+        /**
+         * 当前sheet的读取处理器(为空则跳过该sheet)
+         */
+        private SheetReader handler;
+        private TypedSheetReader typedHandler;
+        private ProjectionSheetReader projectionHandler;
+        private String sheetName;
+        private int startReadRowIndex;
+        private int endReadRowIndex;
+
+        /**
+         * 当前行号(-1为还未开始)
+         */
+        private int currRowIndex;
+        /**
+         * 当前行需要读取的列
+         */
+        private boolean[] readColumns;
+        /**
+         * 等待StringRecord的公式单元格行号(-1为没有)
+         */
+        private int formulaRowIndex = -1;
+        /**
+         * 等待StringRecord的公式单元格列号
+         */
+        private int formulaColumnIndex;
+
+        XlsRecordListener(Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) {
+            this.handlersByIndex = handlersByIndex;
+            this.handlersByName = handlersByName;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formatListener.processRecordInternally(record);
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    return beginSubstream((BOFRecord) record);
+                case EOFRecord.sid:
+                    return endSubstream();
+                case BoundSheetRecord.sid:
+                    boundSheets.add((BoundSheetRecord) record);
+                    break;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    break;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    break;
+                default:
+                    if (handler != null && depth == 1) {
+                        handleCellRecord(record);
+                    }
+                    break;
+            }
+            return 0;
+        }
+
+        /**
+         * 开始一个子流(工作簿全局、sheet或嵌入对象)
+         *
+         * @param bof BOF记录
+         * @return 是否终止
+         */
+        private short beginSubstream(BOFRecord bof) {
+            depth++;
+            if (depth != 1 || bof.getType() == BOFRecord.TYPE_WORKBOOK) {
+                return 0;
+            }
+            if (orderedSheets == null) {
+                orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+                remaining = countMatchedSheets();
+                if (remaining == 0) {
+                    return ABORT;
+                }
+            }
+            sheetIndex++;
+            sheetName = sheetIndex < orderedSheets.length ? orderedSheets[sheetIndex].getSheetname() : null;
+            if (bof.getType() == BOFRecord.TYPE_WORKSHEET) {
+                beginSheet(findHandler(sheetIndex, sheetName));
+            }
+            return 0;
+        }
+
+        /**
+         * 结束一个子流
+         *
+         * @return 是否终止
+         */
+        private short endSubstream() {
+            depth--;
+            if (depth != 0 || handler == null) {
+                return 0;
+            }
+            endRow();
+            handler.end(sheetIndex, sheetName);
+            handler = null;
+            typedHandler = null;
+            projectionHandler = null;
+            remaining--;
+            return remaining <= 0 ? ABORT : 0;
+        }
+
+        /**
+         * 读取出错时中止当前sheet
+         *
+         * @param cause 导致中止的异常
+         */
+        void abort(Throwable cause) {
+            if (handler == null) {
+                return;
+            }
+            SheetReader readHander = handler;
+            handler = null;
+            typedHandler = null;
+            projectionHandler = null;
+            abortSheet(readHander, sheetIndex, sheetName, cause);
+        }
+
+        /**
+         * 统计能匹配到处理器的sheet数量
+         *
+         * @return sheet数量
+         */
+        private int countMatchedSheets() {
+            int count = 0;
+            for (int i = 0; i < orderedSheets.length; i++) {
+                if (findHandler(i, orderedSheets[i].getSheetname()) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * 匹配读取处理器(先按序号，后按表名)
+         *
+         * @param index sheet序号
+         * @param name  sheet名字
+         * @return 读取处理器
+         */
+        private SheetReader findHandler(int index, String name) {
+            SheetReader readHander = null;
+            if (handlersByIndex != null) {
+                readHander = handlersByIndex.get(index);
+            }
+            if (readHander == null && handlersByName != null && name != null) {
+                readHander = handlersByName.get(name);
+            }
+            return readHander;
+        }
+
+        /**
+         * 开始读取sheet
+         *
+         * @param readHander 读取处理器(为空则跳过)
+         */
+        private void beginSheet(SheetReader readHander) {
+            handler = readHander;
+            if (handler == null) {
+                return;
+            }
+            typedHandler = handler instanceof TypedSheetReader ? (TypedSheetReader) handler : null;
+            projectionHandler = handler instanceof ProjectionSheetReader ? (ProjectionSheetReader) handler : null;
+            startReadRowIndex = Math.max(handler.getStartReadRowIndex(), 0);
+            endReadRowIndex = handler.getEndReadRowIndex();
+            currRowIndex = -1;
+            formulaRowIndex = -1;
+            handler.begin(sheetIndex, sheetName);
+        }
+
+        /**
+         * 处理单元格记录<br/>
+         * 单元格记录按行、列顺序出现，行号变化即换行
+         *
+         * @param record 记录
+         */
+        private void handleCellRecord(Record record) {
+            if (record.getSid() == StringRecord.sid) {
+                if (formulaRowIndex >= 0) {
+                    handleFormulaString(formulaRowIndex, formulaColumnIndex, ((StringRecord) record).getString());
+                    formulaRowIndex = -1;
+                }
+                return;
+            }
+            if (!(record instanceof CellValueRecordInterface)) {
+                return;
+            }
+            CellValueRecordInterface cell = (CellValueRecordInterface) record;
+            int rowIndex = cell.getRow();
+            int columnIndex = cell.getColumn();
+            if (rowIndex < startReadRowIndex || (endReadRowIndex >= 0 && rowIndex > endReadRowIndex)) {
+                return;
+            }
+            if (rowIndex != currRowIndex) {
+                endRow();
+                currRowIndex = rowIndex;
+                handler.beginRow(rowIndex);
+                readColumns = projectionHandler == null ? null : projectionHandler.getReadColumns(rowIndex);
+            }
+            if (readColumns != null && (columnIndex >= readColumns.length || !readColumns[columnIndex])) {
+                return;
+            }
+            switch (record.getSid()) {
+                case NumberRecord.sid:
+                    handleNumber(rowIndex, columnIndex, ((NumberRecord) record).getValue(), cell);
+                    break;
+                case LabelSSTRecord.sid:
+                    int idx = ((LabelSSTRecord) record).getSSTIndex();
+                    String str = sst.getString(idx).getString();
+                    if (typedHandler != null) {
+                        typedHandler.handleXlsxString(rowIndex, columnIndex, idx, str);
+                    } else {
+                        handler.handleXlsxCell(rowIndex, columnIndex, str);
+                    }
+                    break;
+                case LabelRecord.sid:
+                    String label = ((LabelRecord) record).getValue();
+                    if (typedHandler != null) {
+                        typedHandler.handleXlsxString(rowIndex, columnIndex, -1, label);
+                    } else {
+                        handler.handleXlsxCell(rowIndex, columnIndex, label);
+                    }
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        handleBoolean(rowIndex, columnIndex, boolErr.getBooleanValue());
+                    } else {
+                        handler.handleXlsxCell(rowIndex, columnIndex, null);
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    handleFormula(rowIndex, columnIndex, (FormulaRecord) record);
+                    break;
+                default:
+                    // 空白单元格
+                    break;
+            }
+        }
+
+        /**
+         * 处理公式单元格(取缓存结果)
+         *
+         * @param rowIndex    行号
+         * @param columnIndex 列号
+         * @param formula     公式记录
+         */
+        private void handleFormula(int rowIndex, int columnIndex, FormulaRecord formula) {
+            CellType type = CellType.forInt(formula.getCachedResultType());
+            switch (type) {
+                case NUMERIC:
+                    handleNumber(rowIndex, columnIndex, formula.getValue(), formula);
+                    break;
+                case STRING:
+                    if (formula.hasCachedResultString()) {
+                        // 字符串结果在紧随其后的StringRecord中
+                        formulaRowIndex = rowIndex;
+                        formulaColumnIndex = columnIndex;
+                    } else {
+                        // 空字符串结果没有StringRecord
+                        handleFormulaString(rowIndex, columnIndex, "");
+                    }
+                    break;
+                case BOOLEAN:
+                    handleBoolean(rowIndex, columnIndex, formula.getCachedBooleanValue());
+                    break;
+                case ERROR:
+                    handler.handleXlsxCell(rowIndex, columnIndex, null);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void handleFormulaString(int rowIndex, int columnIndex, String value) {
+            if (typedHandler != null) {
+                typedHandler.handleXlsxString(rowIndex, columnIndex, -1, value);
+            } else {
+                handler.handleXlsxCell(rowIndex, columnIndex, value);
+            }
+        }
+
+        private void handleNumber(int rowIndex, int columnIndex, double value, CellValueRecordInterface cell) {
+            CellNumberFormat format = numberFormat(cell);
+            if (typedHandler != null) {
+                typedHandler.handleXlsxNumber(rowIndex, columnIndex, value, format, NumberToTextConverter.toText(value));
+            } else {
+                handler.handleXlsxCell(rowIndex, columnIndex, format == null ? NumberToTextConverter.toText(value) : format.format(value));
+            }
+        }
+
+        private void handleBoolean(int rowIndex, int columnIndex, boolean value) {
+            if (typedHandler != null) {
+                typedHandler.handleXlsxBoolean(rowIndex, columnIndex, value);
+            } else {
+                handler.handleXlsxCell(rowIndex, columnIndex, value ? "TRUE" : "FALSE");
+            }
+        }
+
+        /**
+         * 获取单元格样式对应的数字格式，首次使用时编译
+         *
+         * @param cell 单元格
+         * @return 数字格式(样式不存在为空)
+         */
+        private CellNumberFormat numberFormat(CellValueRecordInterface cell) {
+            int xfIndex = cell.getXFIndex();
+            if (xfIndex < numberFormats.length && numberFormats[xfIndex] != null) {
+                return numberFormats[xfIndex];
+            }
+            int formatIndex = formatListener.getFormatIndex(cell);
+            if (formatIndex < 0) {
+                return null;
+            }
+            CellNumberFormat format = compiled.get(formatIndex);
+            if (format == null) {
+                String formatString = formatListener.getFormatString(formatIndex);
+                if (formatString == null) {
+                    return null;
+                }
+                format = CellNumberFormat.compile(formatIndex, formatString, formatter, date1904);
+                compiled.put(formatIndex, format);
+            }
+            if (xfIndex >= numberFormats.length) {
+                numberFormats = Arrays.copyOf(numberFormats, Math.max(xfIndex + 1, numberFormats.length * 2));
+            }
+            numberFormats[xfIndex] = format;
+            return format;
+        }
+
+        /**
+         * 结束当前行
+         */
+        private void endRow() {
+            if (currRowIndex >= 0) {
+                handler.endRow(currRowIndex);
+                currRowIndex = -1;
+            }
+        }
+
+    }
+
+}
@@ -1,15 +1,18 @@
 package cn.emay.excel.read.core;
 
+import cn.emay.excel.read.reader.ProjectionSheetReader;
 import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.read.reader.TypedSheetReader;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.SAXHelper;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -17,18 +20,190 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * XLSX读取器<br/>
+ * 默认采用SAX方式解析sheet，可通过{@link #setSheetEngine(SheetEngine)}切换为专用扫描器<br/>
+ * 默认共享字符串表常驻内存，可通过{@link #setSharedStringsStore(SharedStringsStore)}切换为磁盘映射<br/>
+ * 共享字符串按序号解析后进入有界LRU缓存，可通过{@link #setSharedStringsCacheSize(int)}调整大小并查看命中统计<br/>
+ * 可通过{@link #setExecutor(ExecutorService)}并行解析多个sheet
+ *
  * @author Frank
  */
 public class XlsxReader extends BaseReader {
 
+    /**
+     * sheet解析引擎
+     */
+    private SheetEngine sheetEngine = SheetEngine.SAX;
+
+    /**
+     * 共享字符串存储方式
+     */
+    private SharedStringsStore sharedStringsStore = SharedStringsStore.MEMORY;
+
+    /**
+     * 磁盘映射共享字符串的临时文件目录(为空则使用系统临时目录)
+     */
+    private File tempDirectory;
+
+    /**
+     * 共享字符串缓存数量(小于等于0则不缓存)
+     */
+    private int sharedStringsCacheSize = 1024;
+
+    /**
+     * 共享字符串缓存命中次数(累计)
+     */
+    private final AtomicLong sharedStringsCacheHits = new AtomicLong();
+
+    /**
+     * 共享字符串缓存未命中次数(累计)
+     */
+    private final AtomicLong sharedStringsCacheMisses = new AtomicLong();
+
+    /**
+     * 并行读取sheet的执行器(为空则顺序读取)
+     */
+    private ExecutorService executor;
+
+    /**
+     * 获取sheet解析引擎
+     *
+     * @return sheet解析引擎
+     */
+    public SheetEngine getSheetEngine() {
+        return sheetEngine;
+    }
+
+    /**
+     * 传入sheet解析引擎
+     *
+     * @param sheetEngine sheet解析引擎
+     */
+    public void setSheetEngine(SheetEngine sheetEngine) {
+        if (sheetEngine == null) {
+            throw new IllegalArgumentException("sheetEngine is null");
+        }
+        this.sheetEngine = sheetEngine;
+    }
+
+    /**
+     * 获取共享字符串存储方式
+     *
+     * @return 共享字符串存储方式
+     */
+    public SharedStringsStore getSharedStringsStore() {
+        return sharedStringsStore;
+    }
+
+    /**
+     * 传入共享字符串存储方式
+     *
+     * @param sharedStringsStore 共享字符串存储方式
+     */
+    public void setSharedStringsStore(SharedStringsStore sharedStringsStore) {
+        if (sharedStringsStore == null) {
+            throw new IllegalArgumentException("sharedStringsStore is null");
+        }
+        this.sharedStringsStore = sharedStringsStore;
+    }
+
+    /**
+     * 获取临时文件目录
+     *
+     * @return 临时文件目录
+     */
+    public File getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * 传入磁盘映射共享字符串的临时文件目录
+     *
+     * @param tempDirectory 临时文件目录(为空则使用系统临时目录)
+     */
+    public void setTempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * 获取共享字符串缓存数量
+     *
+     * @return 共享字符串缓存数量
+     */
+    public int getSharedStringsCacheSize() {
+        return sharedStringsCacheSize;
+    }
+
+    /**
+     * 传入共享字符串缓存数量
+     *
+     * @param sharedStringsCacheSize 共享字符串缓存数量(小于等于0则不缓存)
+     */
+    public void setSharedStringsCacheSize(int sharedStringsCacheSize) {
+        this.sharedStringsCacheSize = sharedStringsCacheSize;
+    }
+
+    /**
+     * 获取共享字符串缓存命中次数(本读取器累计)
+     *
+     * @return 命中次数
+     */
+    public long getSharedStringsCacheHits() {
+        return sharedStringsCacheHits.get();
+    }
+
+    /**
+     * 获取共享字符串缓存未命中次数(本读取器累计)
+     *
+     * @return 未命中次数
+     */
+    public long getSharedStringsCacheMisses() {
+        return sharedStringsCacheMisses.get();
+    }
+
+    /**
+     * 获取并行读取sheet的执行器
+     *
+     * @return 执行器
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 传入并行读取sheet的执行器<br/>
+     * 设置后匹配到的多个sheet同时解析，共享样式表与共享字符串表，每个Sheet读取处理器在各自线程中收到begin/行/end回调；<br/>
+     * 因此各sheet须使用不同的Sheet读取处理器实例。执行器由调用方管理，读取完成后不会被关闭<br/>
+     * 不建议与SchemaSheetReader的转换执行器共用有界线程池：解析任务占满线程时，转换只能由处理线程串行完成
+     *
+     * @param executor 执行器(为空则顺序读取)
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 清零共享字符串缓存统计
+     */
+    public void resetSharedStringsCacheStats() {
+        sharedStringsCacheHits.set(0L);
+        sharedStringsCacheMisses.set(0L);
+    }
+
     @Override
     public void read(InputStream is, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) {
         if (is == null) {
@@ -62,42 +237,268 @@ public class XlsxReader extends BaseReader {
         try (OPCPackage opcPackageNew = opcPackage) {
             XSSFReader xssfReader = new XSSFReader(opcPackageNew);
             StylesTable stylesTable = xssfReader.getStylesTable();
-            SharedStringsTable sst = xssfReader.getSharedStringsTable();
-            XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            try (XlsxSharedStrings sst = readSharedStrings(opcPackageNew, xssfReader)) {
+                try {
+                    readSheets(xssfReader, stylesTable, sst, handlersByIndex, handlersByName);
+                } finally {
+                    if (sst instanceof CachedSharedStrings) {
+                        sharedStringsCacheHits.addAndGet(((CachedSharedStrings) sst).getHits());
+                        sharedStringsCacheMisses.addAndGet(((CachedSharedStrings) sst).getMisses());
+                    }
+                }
+            }
+        } catch (IOException | OpenXML4JException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 按存储方式读取共享字符串表，并按需套上LRU缓存
+     *
+     * @param opcPackage 包
+     * @param xssfReader XSSFReader
+     * @return 共享字符串表(没有则为空)
+     */
+    private XlsxSharedStrings readSharedStrings(OPCPackage opcPackage, XSSFReader xssfReader) throws IOException, OpenXML4JException {
+        if (opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType()).isEmpty()) {
+            return null;
+        }
+        XlsxSharedStrings sst;
+        if (SharedStringsStore.MAPPED.equals(sharedStringsStore)) {
+            try (InputStream is = xssfReader.getSharedStringsData()) {
+                sst = new MappedSharedStrings(is, tempDirectory);
+            }
+        } else {
+            sst = new PoiSharedStrings(xssfReader.getSharedStringsTable());
+        }
+        return sharedStringsCacheSize > 0 ? new CachedSharedStrings(sst, sharedStringsCacheSize) : sst;
+    }
+
+    /**
+     * 逐个sheet读取；设置了并行执行器时，匹配到的sheet同时在执行器中解析
+     *
+     * @param xssfReader      XSSFReader
+     * @param stylesTable     样式表
+     * @param sst             共享字符串表
+     * @param handlersByIndex 按序号的读取处理器
+     * @param handlersByName  按名字的读取处理器
+     */
+    private void readSheets(XSSFReader xssfReader, StylesTable stylesTable, XlsxSharedStrings sst, Map<Integer, SheetReader> handlersByIndex, Map<String, SheetReader> handlersByName) throws IOException, OpenXML4JException {
+        boolean date1904 = readDate1904(xssfReader);
+        XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        boolean sax = SheetEngine.SAX.equals(sheetEngine);
+        ExecutorService executor = this.executor;
+        List<Future<?>> futures = new ArrayList<>();
+        Throwable failure = null;
+        try {
             int sheetIndex = 0;
             while (iter.hasNext()) {
-                try (InputStream sheet = iter.next()) {
-                    String sheetName = iter.getSheetName();
-                    SheetReader readHander = null;
-                    if (handlersByIndex != null) {
-                        readHander = handlersByIndex.get(sheetIndex);
-                    }
-                    if (readHander == null && handlersByName != null) {
-                        readHander = handlersByName.get(sheetName);
+                InputStream sheet = iter.next();
+                String sheetName = iter.getSheetName();
+                SheetReader readHander = null;
+                if (handlersByIndex != null) {
+                    readHander = handlersByIndex.get(sheetIndex);
+                }
+                if (readHander == null && handlersByName != null) {
+                    readHander = handlersByName.get(sheetName);
+                }
+                if (readHander == null) {
+                    sheet.close();
+                    sheetIndex++;
+                    continue;
+                }
+                final SheetTask task;
+                try {
+                    task = new SheetTask(sheet, sax ? SAXHelper.newXMLReader() : null, new XlsxSheetHandler(stylesTable, sst, date1904, sheetIndex, sheetName, readHander));
+                } catch (ParserConfigurationException | SAXException | RuntimeException e) {
+                    sheet.close();
+                    throw new IllegalArgumentException(e);
+                }
+                if (executor == null) {
+                    task.run();
+                } else {
+                    try {
+                        futures.add(executor.submit(task));
+                    } catch (RuntimeException e) {
+                        sheet.close();
+                        throw e;
                     }
-                    if (readHander == null) {
-                        continue;
+                }
+                sheetIndex++;
+            }
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // 包关闭前必须等待所有sheet解析结束；已有异常时，并行sheet的异常作为其被抑制的异常
+            RuntimeException error = awaitAll(futures);
+            if (error != null) {
+                if (failure == null) {
+                    throw error;
+                }
+                failure.addSuppressed(error);
+            }
+        }
+    }
+
+    /**
+     * 读取workbook.xml中的日期系统(workbookPr date1904)
+     *
+     * @param xssfReader XSSFReader
+     * @return 是否1904日期系统
+     */
+    private boolean readDate1904(XSSFReader xssfReader) throws IOException, OpenXML4JException {
+        final boolean[] date1904 = new boolean[1];
+        try (InputStream is = xssfReader.getWorkbookData()) {
+            // 与POI一致使用加固的解析器：忽略外部实体、开启安全处理
+            XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String name, Attributes attributes) {
+                    String local = name.substring(name.indexOf(':') + 1);
+                    if ("workbookPr".equals(local)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                        // 读取到日期系统后停止解析
+                        throw new XlsxStopReadException();
+                    } else if ("sheets".equals(local)) {
+                        throw new XlsxStopReadException();
                     }
-                    InputSource sheetSource = new InputSource(sheet);
-                    SAXParserFactory saxFactory = SAXParserFactory.newInstance();
-                    SAXParser saxParser = saxFactory.newSAXParser();
-                    XMLReader sheetParser = saxParser.getXMLReader();
-                    XlsxSheetHandler mxHandler = new XlsxSheetHandler(stylesTable, sst, sheetIndex, sheetName, readHander);
+                }
+            });
+            parser.parse(new InputSource(is));
+        } catch (XlsxStopReadException e) {
+            // 已读取到日期系统
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return date1904[0];
+    }
+
+    /**
+     * 等待所有并行sheet结束
+     *
+     * @param futures 并行任务
+     * @return 第一个异常，其他sheet的异常作为其被抑制的异常[没有异常为空]
+     */
+    private RuntimeException awaitAll(List<Future<?>> futures) {
+        RuntimeException error = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    error = addError(error, cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalArgumentException(cause));
+                    break;
+                } catch (CancellationException e) {
+                    error = addError(error, new IllegalArgumentException(e));
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return error;
+    }
+
+    /**
+     * 合并异常：第一个异常为主，之后的作为被抑制的异常
+     *
+     * @param error 已有异常[可为空]
+     * @param next  新的异常
+     * @return 主异常
+     */
+    private RuntimeException addError(RuntimeException error, RuntimeException next) {
+        if (error == null) {
+            return next;
+        }
+        if (error != next) {
+            error.addSuppressed(next);
+        }
+        return error;
+    }
+
+    /**
+     * 单个sheet解析任务
+     *
+     * @author Frank
+     */
+    private static class SheetTask implements Runnable {
+
+        private final InputStream sheet;
+        private final XMLReader sheetParser;
+        private final XlsxSheetHandler mxHandler;
+
+        SheetTask(InputStream sheet, XMLReader sheetParser, XlsxSheetHandler mxHandler) {
+            this.sheet = sheet;
+            this.sheetParser = sheetParser;
+            this.mxHandler = mxHandler;
+        }
+
+        @Override
+        public void run() {
+            try (InputStream is = sheet) {
+                if (sheetParser != null) {
                     sheetParser.setContentHandler(mxHandler);
-                    sheetParser.parse(sheetSource);
-                } catch (XlsxStopReadException e) {
-                    // 本sheet停止读取
-                } catch (IOException | SAXException | ParserConfigurationException e) {
-                    throw new IllegalArgumentException(e);
-                } finally {
-                    sheetIndex++;
+                    sheetParser.parse(new InputSource(is));
+                } else {
+                    new XlsxSheetScanner(is).scan(mxHandler);
                 }
+            } catch (XlsxStopReadException e) {
+                // 本sheet停止读取
+            } catch (IOException | SAXException e) {
+                mxHandler.abort(e);
+                throw new IllegalArgumentException(e);
+            } catch (RuntimeException | Error e) {
+                mxHandler.abort(e);
+                throw e;
             }
-        } catch (IOException | OpenXML4JException e) {
-            throw new IllegalArgumentException(e);
         }
     }
 
+    /**
+     * 解码_xHHHH_转义(与POI XSSFRichTextString一致)，没有转义时只生成一个字符串
+     *
+     * @param value 原始字符
+     * @return 解码后的字符串
+     */
+    static String utfDecode(StringBuilder value) {
+        int index = value.indexOf("_x");
+        if (index < 0) {
+            return value.toString();
+        }
+        StringBuilder buf = new StringBuilder(value.length());
+        int last = 0;
+        while (index >= 0) {
+            if (index + 7 <= value.length() && value.charAt(index + 6) == '_' && isHex(value, index + 2, index + 6)) {
+                buf.append(value, last, index);
+                buf.append((char) Integer.parseInt(value.substring(index + 2, index + 6), 16));
+                last = index + 7;
+                index = value.indexOf("_x", last);
+            } else {
+                index = value.indexOf("_x", index + 1);
+            }
+        }
+        buf.append(value, last, value.length());
+        return buf.toString();
+    }
+
+    private static boolean isHex(StringBuilder value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'F' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * SAX读取方式停止异常
      *
@@ -116,6 +517,38 @@ public class XlsxReader extends BaseReader {
 
     }
 
+    /**
+     * sheet解析引擎
+     *
+     * @author Frank
+     */
+    public enum SheetEngine {
+        /**
+         * JAXP SAX解析
+         */
+        SAX,
+        /**
+         * 专用扫描器，直接按字节解析SpreadsheetML的row/cell语法
+         */
+        SCANNER,
+    }
+
+    /**
+     * 共享字符串存储方式
+     *
+     * @author Frank
+     */
+    public enum SharedStringsStore {
+        /**
+         * POI SharedStringsTable，全部常驻堆内存
+         */
+        MEMORY,
+        /**
+         * 解析为临时文件后内存映射读取，不占用堆内存
+         */
+        MAPPED,
+    }
+
     /**
      * 数据类型
      *
@@ -149,147 +582,144 @@ public class XlsxReader extends BaseReader {
     }
 
     /**
-     * 处理器
+     * 处理器<br/>
+     * SAX回调与扫描器共用同一套行、单元格处理逻辑
      *
      * @author Frank
      */
     public static class XlsxSheetHandler extends DefaultHandler {
 
         private final StylesTable stylesTable;
-        private final SharedStringsTable sharedStringsTable;
+        private final XlsxSharedStrings sharedStrings;
         private final DataFormatter formatter;
 
         private final String sheetName;
         private final int sheetIndex;
 
         private final SheetReader handler;
+        private final TypedSheetReader typedHandler;
+        private final ProjectionSheetReader projectionHandler;
         private final int startReadRowIndex;
         private final int endReadRowIndex;
 
-        private short formatIndex;
-        private String formatString;
+        private CellNumberFormat numberFormat;
         private DataType nextDataType;
-        private final StringBuffer value;
+        private final StringBuilder value;
 
         private int currColumnIndex = 0;
+        private int nextColumnIndex = 0;
+        private int nextRowIndex = 0;
         private int currRowIndex = 0;
         private int preRowIndex = -1;
 
         private boolean vIsOpen;
+        /**
+         * sheet是否已开始且未结束
+         */
+        private boolean sheetOpen;
+
+        /**
+         * 本行需要读取的列(为空则读取所有列)
+         */
+        private boolean[] readColumns;
+        /**
+         * 当前单元格是否跳过
+         */
+        private boolean cellSkipped;
+
+        /**
+         * 样式序号对应的数字格式表
+         */
+        private final CellNumberFormat[] numberFormats;
 
         public XlsxSheetHandler(StylesTable styles, SharedStringsTable strings, int sheetIndex, String sheetName, SheetReader handler) {
+            this(styles, strings == null ? null : new PoiSharedStrings(strings), sheetIndex, sheetName, handler);
+        }
+
+        public XlsxSheetHandler(StylesTable styles, XlsxSharedStrings strings, int sheetIndex, String sheetName, SheetReader handler) {
+            this(styles, strings, false, sheetIndex, sheetName, handler);
+        }
+
+        public XlsxSheetHandler(StylesTable styles, XlsxSharedStrings strings, boolean date1904, int sheetIndex, String sheetName, SheetReader handler) {
             this.stylesTable = styles;
-            this.sharedStringsTable = strings;
+            this.sharedStrings = strings;
             this.formatter = new DataFormatter();
 
-            this.value = new StringBuffer();
+            this.value = new StringBuilder();
             this.nextDataType = DataType.NUMBER;
 
             this.handler = handler;
+            this.typedHandler = handler instanceof TypedSheetReader ? (TypedSheetReader) handler : null;
+            this.projectionHandler = handler instanceof ProjectionSheetReader ? (ProjectionSheetReader) handler : null;
             this.startReadRowIndex = handler.getStartReadRowIndex();
             this.endReadRowIndex = handler.getEndReadRowIndex();
             this.sheetIndex = sheetIndex;
             this.sheetName = sheetName;
+            this.numberFormats = compileNumberFormats(styles, formatter, date1904);
         }
 
-        @Override
-        public void startElement(String uri, String localName, String name, Attributes attributes) {
-            if ("row".equals(name)) {
-                currRowIndex = Integer.parseInt(attributes.getValue("r")) - 1;
-            }
-            if (endReadRowIndex >= 0 && currRowIndex > endReadRowIndex) {
-                handler.endRow(preRowIndex);
-                handler.end(sheetIndex, sheetName);
-                // 停止读取
-                throw new XlsxStopReadException();
-            }
-            if (startReadRowIndex > currRowIndex) {
-                return;
+        /**
+         * sheet开始时预编译所有样式的数字格式，相同格式共用一个实例
+         *
+         * @param styles    样式表
+         * @param formatter 格式化器
+         * @param date1904  是否1904日期系统
+         * @return 样式序号对应的数字格式表
+         */
+        private static CellNumberFormat[] compileNumberFormats(StylesTable styles, DataFormatter formatter, boolean date1904) {
+            if (styles == null) {
+                return new CellNumberFormat[0];
             }
-            if ("row".equals(name)) {
-                if (preRowIndex != -1) {
-                    handler.endRow(preRowIndex);
+            CellNumberFormat[] formats = new CellNumberFormat[styles.getNumCellStyles()];
+            Map<String, CellNumberFormat> compiled = new HashMap<>();
+            for (int i = 0; i < formats.length; i++) {
+                XSSFCellStyle style = styles.getStyleAt(i);
+                if (style == null) {
+                    continue;
+                }
+                short formatIndex = style.getDataFormat();
+                String formatString = style.getDataFormatString();
+                if (formatString == null) {
+                    formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
                 }
-                handler.beginRow(currRowIndex);
-                preRowIndex = currRowIndex;
+                if (formatString == null) {
+                    continue;
+                }
+                String key = formatIndex + ":" + formatString;
+                CellNumberFormat format = compiled.get(key);
+                if (format == null) {
+                    format = CellNumberFormat.compile(formatIndex, formatString, formatter, date1904);
+                    compiled.put(key, format);
+                }
+                formats[i] = format;
             }
+            return formats;
+        }
 
-            if ("inlineStr".equals(name) || "v".equals(name) || "t".equals(name)) {
-                vIsOpen = true;
-                value.setLength(0);
-            } else if ("c".equals(name)) {
+        @Override
+        public void startElement(String uri, String localName, String name, Attributes attributes) {
+            // 按出现频率判断，元素名比较不产生对象
+            if ("c".equals(name)) {
                 String coordinate = attributes.getValue("r");
-                String columnIndexStr = coordinate.replaceAll("\\d+", "");
-                currColumnIndex = decode(columnIndexStr);
-
-                this.nextDataType = DataType.NUMBER;
-                this.formatIndex = -1;
-                this.formatString = null;
-                String cellType = attributes.getValue("t");
                 String cellStyleStr = attributes.getValue("s");
-                if ("b".equals(cellType)) {
-                    nextDataType = DataType.BOOL;
-                } else if ("e".equals(cellType)) {
-                    nextDataType = DataType.ERROR;
-                } else if ("inlineStr".equals(cellType)) {
-                    nextDataType = DataType.INLINESTR;
-                } else if ("s".equals(cellType)) {
-                    nextDataType = DataType.SSTINDEX;
-                } else if ("str".equals(cellType)) {
-                    nextDataType = DataType.FORMULA;
-                } else if (cellStyleStr != null) {
-                    int styleIndex = Integer.parseInt(cellStyleStr);
-                    XSSFCellStyle style = stylesTable.getStyleAt(styleIndex);
-                    this.formatIndex = style.getDataFormat();
-                    this.formatString = style.getDataFormatString();
-                    if (this.formatString == null) {
-                        this.formatString = BuiltinFormats.getBuiltinFormat(this.formatIndex);
-                    }
-                }
+                int columnIndex = coordinate == null ? nextColumnIndex : decodeColumn(coordinate);
+                nextColumnIndex = columnIndex + 1;
+                startCell(columnIndex, toDataType(attributes.getValue("t")), cellStyleStr == null ? -1 : Integer.parseInt(cellStyleStr));
+            } else if ("v".equals(name) || "t".equals(name) || "inlineStr".equals(name)) {
+                startValue();
+            } else if ("row".equals(name)) {
+                String rowIndexStr = attributes.getValue("r");
+                int rowIndex = rowIndexStr == null ? nextRowIndex : Integer.parseInt(rowIndexStr) - 1;
+                nextRowIndex = rowIndex + 1;
+                nextColumnIndex = 0;
+                startRow(rowIndex);
             }
-
         }
 
         @Override
         public void endElement(String uri, String localName, String name) {
-            if (startReadRowIndex > currRowIndex) {
-                return;
-            }
-            String thisStr = null;
             if ("v".equals(name) || "t".equals(name)) {
-                switch (nextDataType) {
-                    case BOOL:
-                        char first = value.charAt(0);
-                        thisStr = first == '0' ? "FALSE" : "TRUE";
-                        break;
-                    case FORMULA:
-                        thisStr = value.toString();
-                        break;
-                    case INLINESTR:
-                        XSSFRichTextString rtsi = new XSSFRichTextString(value.toString());
-                        thisStr = rtsi.toString();
-                        break;
-                    case SSTINDEX:
-                        String sstIndex = value.toString();
-                        try {
-                            int idx = Integer.parseInt(sstIndex);
-                            XSSFRichTextString rtss = new XSSFRichTextString(sharedStringsTable.getEntryAt(idx));
-                            thisStr = rtss.toString();
-                        } catch (NumberFormatException ignored) {
-                        }
-                        break;
-                    case NUMBER:
-                        String n = value.toString();
-                        if (this.formatString != null) {
-                            thisStr = formatter.formatRawCellContents(Double.parseDouble(n), this.formatIndex, this.formatString);
-                        } else {
-                            thisStr = n;
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                handler.handleXlsxCell(currRowIndex, currColumnIndex, thisStr);
+                endValue();
             }
         }
 
@@ -302,6 +732,7 @@ public class XlsxReader extends BaseReader {
 
         @Override
         public void startDocument() {
+            sheetOpen = true;
             handler.begin(sheetIndex, sheetName);
         }
 
@@ -309,18 +740,242 @@ public class XlsxReader extends BaseReader {
         public void endDocument() {
             handler.endRow(currRowIndex);
             handler.end(sheetIndex, sheetName);
+            sheetOpen = false;
+        }
+
+        /**
+         * 读取出错时中止sheet(已正常结束则忽略)
+         *
+         * @param cause 导致中止的异常
+         */
+        void abort(Throwable cause) {
+            if (!sheetOpen) {
+                return;
+            }
+            sheetOpen = false;
+            abortSheet(handler, sheetIndex, sheetName, cause);
+        }
+
+        /**
+         * 开始新的一行
+         *
+         * @param rowIndex 行号[从0开始]
+         */
+        void startRow(int rowIndex) {
+            currRowIndex = rowIndex;
+            if (endReadRowIndex >= 0 && currRowIndex > endReadRowIndex) {
+                handler.endRow(preRowIndex);
+                handler.end(sheetIndex, sheetName);
+                sheetOpen = false;
+                // 停止读取
+                throw new XlsxStopReadException();
+            }
+            if (startReadRowIndex > currRowIndex) {
+                return;
+            }
+            if (preRowIndex != -1) {
+                handler.endRow(preRowIndex);
+            }
+            handler.beginRow(currRowIndex);
+            preRowIndex = currRowIndex;
+            if (projectionHandler != null) {
+                readColumns = projectionHandler.getReadColumns(currRowIndex);
+            }
+        }
+
+        /**
+         * 开始新的单元格
+         *
+         * @param columnIndex 列号[从0开始]
+         * @param dataType    数据类型
+         * @param styleIndex  样式序号(没有样式为-1)
+         */
+        void startCell(int columnIndex, DataType dataType, int styleIndex) {
+            if (startReadRowIndex > currRowIndex) {
+                return;
+            }
+            this.currColumnIndex = columnIndex;
+            this.cellSkipped = readColumns != null && (columnIndex < 0 || columnIndex >= readColumns.length || !readColumns[columnIndex]);
+            if (cellSkipped) {
+                return;
+            }
+            this.nextDataType = dataType;
+            this.numberFormat = null;
+            if (DataType.NUMBER.equals(dataType) && styleIndex >= 0 && styleIndex < numberFormats.length) {
+                this.numberFormat = numberFormats[styleIndex];
+            }
+        }
+
+        /**
+         * 开始读取值
+         */
+        void startValue() {
+            if (startReadRowIndex > currRowIndex || cellSkipped) {
+                return;
+            }
+            vIsOpen = true;
+            value.setLength(0);
+        }
+
+        /**
+         * 当前单元格是否不需要读取(扫描器据此跳过值文本)
+         *
+         * @return 是否跳过
+         */
+        boolean isCellSkipped() {
+            return cellSkipped || startReadRowIndex > currRowIndex;
         }
 
         /**
-         * 解码
+         * 追加值
          *
-         * @param inhex 列名
-         * @return 列名数字
+         * @param ch     字符
+         * @param start  开始位置
+         * @param length 长度
          */
-        protected int decode(String inhex) {
+        void appendValue(char[] ch, int start, int length) {
+            characters(ch, start, length);
+        }
+
+        /**
+         * 值读取完成，转换后交给Sheet读取处理器
+         */
+        void endValue() {
+            if (startReadRowIndex > currRowIndex || cellSkipped) {
+                return;
+            }
+            vIsOpen = false;
+            if (typedHandler != null && endTypedValue()) {
+                return;
+            }
+            String thisStr = null;
+            switch (nextDataType) {
+                case BOOL:
+                    char first = value.charAt(0);
+                    thisStr = first == '0' ? "FALSE" : "TRUE";
+                    break;
+                case FORMULA:
+                    thisStr = value.toString();
+                    break;
+                case INLINESTR:
+                    thisStr = utfDecode(value);
+                    break;
+                case SSTINDEX:
+                    int idx = parseIndex(value);
+                    if (idx >= 0) {
+                        thisStr = sharedStrings.getString(idx);
+                    }
+                    break;
+                case NUMBER:
+                    String n = value.toString();
+                    if (this.numberFormat != null) {
+                        thisStr = numberFormat.format(Double.parseDouble(n));
+                    } else {
+                        thisStr = n;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            handler.handleXlsxCell(currRowIndex, currColumnIndex, thisStr);
+        }
+
+        /**
+         * 按类型回调，不做字符串格式化
+         *
+         * @return 是否已处理(否则按字符串回调)
+         */
+        private boolean endTypedValue() {
+            switch (nextDataType) {
+                case BOOL:
+                    typedHandler.handleXlsxBoolean(currRowIndex, currColumnIndex, value.length() > 0 && value.charAt(0) != '0');
+                    return true;
+                case FORMULA:
+                    typedHandler.handleXlsxString(currRowIndex, currColumnIndex, -1, value.toString());
+                    return true;
+                case INLINESTR:
+                    typedHandler.handleXlsxString(currRowIndex, currColumnIndex, -1, utfDecode(value));
+                    return true;
+                case SSTINDEX:
+                    int idx = parseIndex(value);
+                    if (idx < 0) {
+                        return false;
+                    }
+                    typedHandler.handleXlsxString(currRowIndex, currColumnIndex, idx, sharedStrings.getString(idx));
+                    return true;
+                case NUMBER:
+                    String n = value.toString();
+                    double number;
+                    try {
+                        number = Double.parseDouble(n);
+                    } catch (NumberFormatException e) {
+                        handler.handleXlsxCell(currRowIndex, currColumnIndex, n);
+                        return true;
+                    }
+                    typedHandler.handleXlsxNumber(currRowIndex, currColumnIndex, number, numberFormat, n);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * 单元格t属性转换为数据类型
+         *
+         * @param cellType t属性
+         * @return 数据类型
+         */
+        protected DataType toDataType(String cellType) {
+            if ("b".equals(cellType)) {
+                return DataType.BOOL;
+            } else if ("e".equals(cellType)) {
+                return DataType.ERROR;
+            } else if ("inlineStr".equals(cellType)) {
+                return DataType.INLINESTR;
+            } else if ("s".equals(cellType)) {
+                return DataType.SSTINDEX;
+            } else if ("str".equals(cellType)) {
+                return DataType.FORMULA;
+            } else {
+                return DataType.NUMBER;
+            }
+        }
+
+        /**
+         * 解析共享字符串序号
+         *
+         * @param chars 字符
+         * @return 序号(非法为-1)
+         */
+        private static int parseIndex(CharSequence chars) {
+            int length = chars.length();
+            if (length == 0 || length > 10) {
+                return -1;
+            }
+            long result = 0;
+            for (int i = 0; i < length; i++) {
+                int d = chars.charAt(i) - '0';
+                if (d < 0 || d > 9) {
+                    return -1;
+                }
+                result = result * 10 + d;
+            }
+            return result > Integer.MAX_VALUE ? -1 : (int) result;
+        }
+
+        /**
+         * 解码单元格坐标中的列名(遇到行号数字即停止)
+         *
+         * @param coordinate 单元格坐标，如AB12
+         * @return 列号[从0开始]
+         */
+        protected int decodeColumn(String coordinate) {
             int column = -1;
-            for (int i = 0; i < inhex.length(); ++i) {
-                int c = inhex.charAt(i);
+            for (int i = 0; i < coordinate.length(); ++i) {
+                int c = coordinate.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
                 column = (column + 1) * 26 + c - 'A';
             }
             return column;
@@ -0,0 +1,28 @@
+package cn.emay.excel.read.core;
+
+import java.io.Closeable;
+
+/**
+ * XLSX共享字符串表<br/>
+ * 按序号获取sharedStrings.xml中的字符串(已去除格式、注音，已解码_xHHHH_转义)
+ *
+ * @author Frank
+ */
+public interface XlsxSharedStrings extends Closeable {
+
+    /**
+     * 共享字符串数量
+     *
+     * @return 数量
+     */
+    int size();
+
+    /**
+     * 按序号获取字符串
+     *
+     * @param index 序号[从0开始]
+     * @return 字符串
+     */
+    String getString(int index);
+
+}
@@ -0,0 +1,627 @@
+package cn.emay.excel.read.core;
+
+import cn.emay.excel.read.core.XlsxReader.DataType;
+import cn.emay.excel.read.core.XlsxReader.XlsxSheetHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * XLSX sheet扫描器<br/>
+ * 只识别SpreadsheetML中row/c/v/t等元素的专用扫描器，直接按字节解析sheetN.xml，不经过JAXP SAX<br/>
+ * 解析结果与SAX方式一致，通过XlsxSheetHandler回调Sheet读取处理器
+ *
+ * @author Frank
+ */
+public class XlsxSheetScanner {
+
+    /**
+     * 读取缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 元素名最大记录长度(超出部分不参与比较)
+     */
+    private static final int NAME_SIZE = 16;
+
+    private static final byte[] ROW = {'r', 'o', 'w'};
+    private static final byte[] INLINE_STR = {'i', 'n', 'l', 'i', 'n', 'e', 'S', 't', 'r'};
+    private static final byte[] STR = {'s', 't', 'r'};
+
+    /**
+     * 输入流
+     */
+    private final InputStream is;
+    /**
+     * 字节缓冲区
+     */
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    /**
+     * 缓冲区读取位置
+     */
+    private int pos;
+    /**
+     * 缓冲区有效长度
+     */
+    private int limit;
+
+    /**
+     * 当前元素的本地名(去掉前缀)
+     */
+    private final byte[] name = new byte[NAME_SIZE];
+    /**
+     * 当前元素本地名长度
+     */
+    private int nameLength;
+    /**
+     * 当前属性值(仅记录需要的属性)
+     */
+    private final byte[] attr = new byte[NAME_SIZE];
+    /**
+     * 当前属性值长度
+     */
+    private int attrLength;
+
+    /**
+     * 值字符缓冲
+     */
+    private char[] text = new char[256];
+    /**
+     * 值字符长度
+     */
+    private int textLength;
+    /**
+     * 上一个字符是否为\r(用于换行归一化)
+     */
+    private boolean lastCr;
+
+    /**
+     * @param is sheetN.xml输入流
+     */
+    public XlsxSheetScanner(InputStream is) {
+        if (is == null) {
+            throw new IllegalArgumentException("InputStream is null");
+        }
+        this.is = is;
+    }
+
+    /**
+     * 扫描整个sheet
+     *
+     * @param handler 处理器
+     * @throws IOException IO异常
+     */
+    public void scan(XlsxSheetHandler handler) throws IOException {
+        handler.startDocument();
+        boolean inValue = false;
+        int nextRowIndex = 0;
+        int nextColumnIndex = 0;
+        int b;
+        while (true) {
+            if (inValue) {
+                b = readText();
+            } else {
+                b = skipToTag();
+            }
+            if (b == -1) {
+                break;
+            }
+            b = read();
+            if (b == '?') {
+                skipUntil('?', '>');
+            } else if (b == '!') {
+                b = read();
+                if (b == '-') {
+                    read();
+                    skipUntil('-', '-');
+                    skipTo('>');
+                } else if (b == '[') {
+                    // <![CDATA[
+                    for (int i = 0; i < 6; i++) {
+                        read();
+                    }
+                    readCdata(inValue);
+                } else {
+                    skipTo('>');
+                }
+            } else if (b == '/') {
+                b = readName(read());
+                if (b != '>') {
+                    skipTo('>');
+                }
+                if (inValue && isValueElement()) {
+                    flushText(handler);
+                    handler.endValue();
+                    inValue = false;
+                }
+            } else if (b != -1) {
+                b = readName(b);
+                boolean isRow = isName(ROW);
+                boolean isCell = nameLength == 1 && name[0] == 'c';
+                int rowIndex = nextRowIndex;
+                int columnIndex = nextColumnIndex;
+                DataType dataType = DataType.NUMBER;
+                int styleIndex = -1;
+                while (b != '>' && b != '/' && b != -1) {
+                    int attrName = readAttribute(b);
+                    if (isRow) {
+                        if (attrName == 'r' && attrLength > 0) {
+                            rowIndex = parseInt(0, attrLength) - 1;
+                        }
+                    } else if (isCell) {
+                        if (attrName == 'r' && attrLength > 0) {
+                            columnIndex = parseColumn();
+                        } else if (attrName == 't') {
+                            dataType = parseDataType();
+                        } else if (attrName == 's' && attrLength > 0) {
+                            styleIndex = parseInt(0, attrLength);
+                        }
+                    }
+                    b = skipWhitespace(read());
+                }
+                boolean empty = skipTag(b);
+                if (isRow) {
+                    handler.startRow(rowIndex);
+                    nextRowIndex = rowIndex + 1;
+                    nextColumnIndex = 0;
+                } else if (isCell) {
+                    handler.startCell(columnIndex, dataType, styleIndex);
+                    nextColumnIndex = columnIndex + 1;
+                } else if (isValueElement()) {
+                    handler.startValue();
+                    if (empty) {
+                        handler.endValue();
+                    } else if (!handler.isCellSkipped()) {
+                        inValue = true;
+                        textLength = 0;
+                        lastCr = false;
+                    }
+                } else if (isName(INLINE_STR)) {
+                    handler.startValue();
+                }
+            }
+        }
+        handler.endDocument();
+    }
+
+    /**
+     * 当前元素是否为值元素(v/t)
+     *
+     * @return 是否为值元素
+     */
+    private boolean isValueElement() {
+        return nameLength == 1 && (name[0] == 'v' || name[0] == 't');
+    }
+
+    /**
+     * 当前元素本地名是否与目标一致
+     *
+     * @param target 目标
+     * @return 是否一致
+     */
+    private boolean isName(byte[] target) {
+        if (nameLength != target.length) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (name[i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取元素名，记录本地名
+     *
+     * @param b 元素名第一个字节
+     * @return 元素名之后第一个非空白字节
+     */
+    private int readName(int b) {
+        nameLength = 0;
+        while (b != -1 && b != '>' && b != '/' && !isWhitespace(b)) {
+            if (b == ':') {
+                nameLength = 0;
+            } else {
+                if (nameLength < NAME_SIZE) {
+                    name[nameLength] = (byte) b;
+                }
+                nameLength++;
+            }
+            b = read();
+        }
+        return skipWhitespace(b);
+    }
+
+    /**
+     * 读取一个属性<br/>
+     * 仅单字节属性名(r/t/s)记录属性值
+     *
+     * @param b 属性名第一个字节
+     * @return 单字节属性名，其他属性返回-1
+     */
+    private int readAttribute(int b) {
+        int first = b;
+        int length = 0;
+        while (b != -1 && b != '=' && !isWhitespace(b)) {
+            if (b == ':') {
+                length = 0;
+            } else {
+                if (length == 0) {
+                    first = b;
+                }
+                length++;
+            }
+            b = read();
+        }
+        b = skipWhitespace(b);
+        if (b == '=') {
+            b = skipWhitespace(read());
+        }
+        int quote = b;
+        attrLength = 0;
+        b = read();
+        while (b != quote && b != -1) {
+            if (attrLength < NAME_SIZE) {
+                attr[attrLength++] = (byte) b;
+            }
+            b = read();
+        }
+        return length == 1 ? first : -1;
+    }
+
+    /**
+     * 解析属性中的整数
+     *
+     * @param from 开始位置
+     * @param to   结束位置
+     * @return 整数
+     */
+    private int parseInt(int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int d = attr[i] - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("For input string: \"" + new String(attr, 0, attrLength) + "\"");
+            }
+            result = result * 10 + d;
+        }
+        return result;
+    }
+
+    /**
+     * 解析单元格坐标中的列号
+     *
+     * @return 列号[从0开始]
+     */
+    private int parseColumn() {
+        int column = -1;
+        for (int i = 0; i < attrLength; i++) {
+            int c = attr[i];
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = (column + 1) * 26 + c - 'A';
+        }
+        return column;
+    }
+
+    /**
+     * 解析单元格t属性
+     *
+     * @return 数据类型
+     */
+    private DataType parseDataType() {
+        if (attrLength == 1) {
+            switch (attr[0]) {
+                case 'b':
+                    return DataType.BOOL;
+                case 'e':
+                    return DataType.ERROR;
+                case 's':
+                    return DataType.SSTINDEX;
+                default:
+                    return DataType.NUMBER;
+            }
+        }
+        if (isAttr(STR)) {
+            return DataType.FORMULA;
+        }
+        if (isAttr(INLINE_STR)) {
+            return DataType.INLINESTR;
+        }
+        return DataType.NUMBER;
+    }
+
+    /**
+     * 当前属性值是否与目标一致
+     *
+     * @param target 目标
+     * @return 是否一致
+     */
+    private boolean isAttr(byte[] target) {
+        if (attrLength != target.length) {
+            return false;
+        }
+        for (int i = 0; i < attrLength; i++) {
+            if (attr[i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 跳过当前标签剩余部分
+     *
+     * @param b 当前字节
+     * @return 是否为空标签(/&gt;结尾)
+     */
+    private boolean skipTag(int b) {
+        boolean empty = false;
+        while (b != '>' && b != -1) {
+            empty = b == '/';
+            b = read();
+        }
+        return empty;
+    }
+
+    /**
+     * 读取文本直到下一个标签
+     *
+     * @return '&lt;'或-1
+     */
+    private int readText() {
+        int b;
+        while ((b = read()) != -1) {
+            if (b == '<') {
+                return b;
+            }
+            if (b == '&') {
+                readEntity();
+            } else {
+                appendByte(b);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * 读取CDATA内容
+     *
+     * @param append 是否追加到值
+     */
+    private void readCdata(boolean append) {
+        int brackets = 0;
+        int b;
+        while ((b = read()) != -1) {
+            if (b == ']') {
+                brackets++;
+                continue;
+            }
+            if (b == '>' && brackets >= 2) {
+                brackets -= 2;
+                while (append && brackets-- > 0) {
+                    appendChar(']');
+                }
+                return;
+            }
+            while (append && brackets-- > 0) {
+                appendChar(']');
+            }
+            if (append) {
+                appendByte(b);
+            }
+            brackets = 0;
+        }
+    }
+
+    /**
+     * 跳过非值文本，直到下一个标签
+     *
+     * @return '&lt;'或-1
+     */
+    private int skipToTag() {
+        while (true) {
+            for (int i = pos; i < limit; i++) {
+                if (buf[i] == '<') {
+                    pos = i + 1;
+                    return '<';
+                }
+            }
+            pos = limit;
+            if (!fill()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * 跳过直到指定字节
+     *
+     * @param target 目标字节
+     */
+    private void skipTo(int target) {
+        int b;
+        do {
+            b = read();
+        } while (b != target && b != -1);
+    }
+
+    /**
+     * 跳过直到连续的两个字节(含)
+     *
+     * @param first  第一个字节
+     * @param second 第二个字节
+     */
+    private void skipUntil(int first, int second) {
+        int pre = -1;
+        int b;
+        while ((b = read()) != -1) {
+            if (pre == first && b == second) {
+                return;
+            }
+            pre = b;
+        }
+    }
+
+    /**
+     * 跳过空白
+     *
+     * @param b 当前字节
+     * @return 第一个非空白字节
+     */
+    private int skipWhitespace(int b) {
+        while (isWhitespace(b)) {
+            b = read();
+        }
+        return b;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * 读取实体引用(&amp;已读取)
+     */
+    private void readEntity() {
+        int b = read();
+        if (b == '#') {
+            int radix = 10;
+            b = read();
+            if (b == 'x') {
+                radix = 16;
+                b = read();
+            }
+            int code = 0;
+            while (b != ';' && b != -1) {
+                code = code * radix + Character.digit(b, radix);
+                b = read();
+            }
+            appendCodePoint(code);
+            return;
+        }
+        int length = 0;
+        int c0 = 0;
+        int c1 = 0;
+        while (b != ';' && b != -1) {
+            if (length == 0) {
+                c0 = b;
+            } else if (length == 1) {
+                c1 = b;
+            }
+            length++;
+            b = read();
+        }
+        if (c0 == 'a' && length == 3) {
+            appendChar('&');
+        } else if (c0 == 'a' && length == 4) {
+            appendChar('\'');
+        } else if (c0 == 'l' && c1 == 't') {
+            appendChar('<');
+        } else if (c0 == 'g' && c1 == 't') {
+            appendChar('>');
+        } else if (c0 == 'q') {
+            appendChar('"');
+        }
+    }
+
+    /**
+     * 追加一个UTF-8字节序列开始的字符
+     *
+     * @param b 第一个字节
+     */
+    private void appendByte(int b) {
+        if (b < 0x80) {
+            if (b == '\r') {
+                appendChar('\n');
+                lastCr = true;
+                return;
+            }
+            if (b == '\n' && lastCr) {
+                lastCr = false;
+                return;
+            }
+            lastCr = false;
+            appendChar((char) b);
+            return;
+        }
+        lastCr = false;
+        int code;
+        if (b < 0xE0) {
+            code = ((b & 0x1F) << 6) | (read() & 0x3F);
+        } else if (b < 0xF0) {
+            code = ((b & 0x0F) << 12) | ((read() & 0x3F) << 6) | (read() & 0x3F);
+        } else {
+            code = ((b & 0x07) << 18) | ((read() & 0x3F) << 12) | ((read() & 0x3F) << 6) | (read() & 0x3F);
+        }
+        appendCodePoint(code);
+    }
+
+    private void appendCodePoint(int code) {
+        if (code >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            appendChar(Character.highSurrogate(code));
+            appendChar(Character.lowSurrogate(code));
+        } else {
+            appendChar((char) code);
+        }
+    }
+
+    private void appendChar(char c) {
+        if (textLength == text.length) {
+            char[] newText = new char[text.length * 2];
+            System.arraycopy(text, 0, newText, 0, textLength);
+            text = newText;
+        }
+        text[textLength++] = c;
+    }
+
+    /**
+     * 把缓冲的值交给处理器
+     *
+     * @param handler 处理器
+     */
+    private void flushText(XlsxSheetHandler handler) {
+        if (textLength > 0) {
+            handler.appendValue(text, 0, textLength);
+            textLength = 0;
+        }
+    }
+
+    /**
+     * 读取一个字节
+     *
+     * @return 字节，结束返回-1
+     */
+    private int read() {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    /**
+     * 填充缓冲区
+     *
+     * @return 是否还有数据
+     */
+    private boolean fill() {
+        try {
+            int n;
+            do {
+                n = is.read(buf, 0, buf.length);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            pos = 0;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package cn.emay.excel.read.reader;
+
+/**
+ * 可中止的Sheet读取处理器<br/>
+ * 读取sheet时在begin之后出现任何异常(解析错误、IO错误或回调抛出的异常)，读取引擎都会调用{@link #abort(int, String)}代替end，<br/>
+ * 处理器在此释放读取期间持有的资源(如后台线程)；之后异常照常抛出
+ *
+ * @author Frank
+ */
+public interface AbortableSheetReader extends SheetReader {
+
+    /**
+     * 中止读取<br/>
+     * 每个sheet最多调用一次，不应再抛出异常
+     *
+     * @param sheetIndex sheet序号
+     * @param sheetName  sheet名字
+     */
+    void abort(int sheetIndex, String sheetName);
+
+}
@@ -0,0 +1,20 @@
+package cn.emay.excel.read.reader;
+
+/**
+ * 声明所需列的Sheet读取处理器<br/>
+ * 读取引擎在每行开始时获取所需列，其他列的单元格不解析值、不回调
+ *
+ * @author Frank
+ */
+public interface ProjectionSheetReader extends SheetReader {
+
+    /**
+     * 获取本行需要读取的列<br/>
+     * 在beginRow之后调用，每行调用一次
+     *
+     * @param rowIndex 行号[从0开始]
+     * @return 按列号标记是否需要读取(超出长度的列不读取)；为空则读取所有列
+     */
+    boolean[] getReadColumns(int rowIndex);
+
+}
@@ -0,0 +1,13 @@
+package cn.emay.excel.read.reader;
+
+/**
+ * 稀疏行Sheet读取处理器<br/>
+ * XLS读取时只对行中实际存在的单元格回调{@link #handleXlsCell(int, int, org.apache.poi.ss.usermodel.Cell)}，<br/>
+ * 不再按列号逐个回调空槽位，单元格参数不会为空；<br/>
+ * XLSX读取本身只回调实际存在的单元格，不受影响
+ *
+ * @author Frank
+ */
+public interface SparseSheetReader extends SheetReader {
+
+}
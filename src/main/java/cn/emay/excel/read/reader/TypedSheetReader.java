@@ -0,0 +1,45 @@
+package cn.emay.excel.read.reader;
+
+import cn.emay.excel.read.core.CellNumberFormat;
+
+/**
+ * 按类型接收XLSX单元格的Sheet读取处理器<br/>
+ * XLSX读取时数字、布尔、字符串单元格不再格式化为字符串，直接以原始类型回调；<br/>
+ * 其他单元格(如错误)仍通过{@link #handleXlsxCell(int, int, String)}回调
+ *
+ * @author Frank
+ */
+public interface TypedSheetReader extends SheetReader {
+
+    /**
+     * 处理XLSX数字单元格(包括日期)
+     *
+     * @param rowIndex    行号[从0开始]
+     * @param columnIndex 列号[从0开始]
+     * @param value       数字
+     * @param format      数字格式(没有样式时为空)
+     * @param text        单元格中的原始文本<br/>
+     *                    format不为空时format.format(value)，否则text，即为handleXlsxCell收到的字符串
+     */
+    void handleXlsxNumber(int rowIndex, int columnIndex, double value, CellNumberFormat format, String text);
+
+    /**
+     * 处理XLSX布尔单元格
+     *
+     * @param rowIndex    行号[从0开始]
+     * @param columnIndex 列号[从0开始]
+     * @param value       布尔值
+     */
+    void handleXlsxBoolean(int rowIndex, int columnIndex, boolean value);
+
+    /**
+     * 处理XLSX字符串单元格(共享字符串、内联字符串、公式字符串结果)
+     *
+     * @param rowIndex          行号[从0开始]
+     * @param columnIndex       列号[从0开始]
+     * @param sharedStringIndex 共享字符串序号(非共享字符串为-1)
+     * @param value             字符串
+     */
+    void handleXlsxString(int rowIndex, int columnIndex, int sharedStringIndex, String value);
+
+}
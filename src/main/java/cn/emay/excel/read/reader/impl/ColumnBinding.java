@@ -0,0 +1,461 @@
+package cn.emay.excel.read.reader.impl;
+
+import cn.emay.excel.common.schema.base.ColumnSchema;
+import cn.emay.excel.read.core.CellNumberFormat;
+import cn.emay.excel.utils.DateCodec;
+import cn.emay.excel.utils.ExcelReadUtils;
+import cn.emay.excel.utils.ExcelUtils;
+import cn.emay.excel.utils.FieldAccessor;
+import org.apache.poi.ss.usermodel.Cell;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 列绑定<br/>
+ * 读取前按字段类型选定转换方式，并解析好表达式(小数位数、日期格式)，<br/>
+ * 读取单元格时不再查找定义、判断类型，转换规则与{@link ExcelReadUtils}的read方法一致；<br/>
+ * 字段通过{@link FieldAccessor}写入，数字、布尔原始值直接写入基本类型字段不装箱
+ *
+ * @author Frank
+ */
+abstract class ColumnBinding {
+
+    /**
+     * 字段访问器
+     */
+    final FieldAccessor accessor;
+
+    ColumnBinding(FieldAccessor accessor) {
+        this.accessor = accessor;
+    }
+
+    /**
+     * 编译列绑定
+     *
+     * @param field  字段访问器
+     * @param column 列定义
+     * @return 列绑定
+     */
+    static ColumnBinding compile(FieldAccessor field, ColumnSchema column) {
+        Class<?> fieldClass = field.getType();
+        String express = column.getExpress();
+        if (int.class.isAssignableFrom(fieldClass) || Integer.class.isAssignableFrom(fieldClass)) {
+            return new IntegerBinding(field);
+        } else if (Double.class.isAssignableFrom(fieldClass) || double.class.isAssignableFrom(fieldClass)) {
+            return new DoubleBinding(field, ExcelUtils.parserExpressToInt(express));
+        } else if (Long.class.isAssignableFrom(fieldClass) || long.class.isAssignableFrom(fieldClass)) {
+            return new LongBinding(field);
+        } else if (BigDecimal.class.isAssignableFrom(fieldClass)) {
+            return new BigDecimalBinding(field, ExcelUtils.parserExpressToInt(express));
+        } else if (Date.class.isAssignableFrom(fieldClass)) {
+            return new DateBinding(field, express);
+        } else if (DateCodec.isTemporal(fieldClass)) {
+            return new TemporalBinding(field, express);
+        } else if (Boolean.class.isAssignableFrom(fieldClass) || boolean.class.isAssignableFrom(fieldClass)) {
+            return new BooleanBinding(field);
+        } else if (String.class.isAssignableFrom(fieldClass)) {
+            return new StringBinding(field);
+        }
+        return new UnsupportedBinding(field);
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return 字段名
+     */
+    String getFieldName() {
+        return accessor.getName();
+    }
+
+    /**
+     * 写入字段
+     *
+     * @param data  数据
+     * @param value 值(为空不写入)
+     */
+    void set(Object data, Object value) {
+        if (value != null) {
+            accessor.set(data, value);
+        }
+    }
+
+    /**
+     * 写入数字原始值({@link #readsNumber(CellNumberFormat)}为真时调用)
+     *
+     * @param data     数据
+     * @param value    数字
+     * @param date1904 是否1904日期系统
+     */
+    void setNumber(Object data, double value, boolean date1904) {
+        set(data, read(value, date1904));
+    }
+
+    /**
+     * 写入布尔值({@link #readsBoolean()}为真时调用)
+     *
+     * @param data  数据
+     * @param value 布尔值
+     */
+    void setBoolean(Object data, boolean value) {
+        set(data, value);
+    }
+
+    /**
+     * 读取字符串单元格
+     *
+     * @param value 字符串
+     * @return 值[可能为空]
+     */
+    abstract Object read(String value);
+
+    /**
+     * 读取XLS单元格
+     *
+     * @param cell 单元格
+     * @return 值[可能为空]
+     */
+    abstract Object read(Cell cell);
+
+    /**
+     * 数字单元格是否可以不经过字符串直接读取
+     *
+     * @param format 数字格式
+     * @return 是否直接读取
+     */
+    boolean readsNumber(CellNumberFormat format) {
+        return false;
+    }
+
+    /**
+     * 读取数字原始值({@link #readsNumber(CellNumberFormat)}为真时调用)
+     *
+     * @param value    数字
+     * @param date1904 是否1904日期系统
+     * @return 值[可能为空]
+     */
+    Object read(double value, boolean date1904) {
+        return null;
+    }
+
+    /**
+     * 布尔单元格是否可以直接写入
+     *
+     * @return 是否直接写入
+     */
+    boolean readsBoolean() {
+        return false;
+    }
+
+    private static class IntegerBinding extends ColumnBinding {
+
+        IntegerBinding(FieldAccessor field) {
+            super(field);
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readInteger(value);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readInteger(cell);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return true;
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            return ExcelReadUtils.toInt(value);
+        }
+
+        @Override
+        void setNumber(Object data, double value, boolean date1904) {
+            accessor.setInt(data, ExcelReadUtils.toInt(value));
+        }
+    }
+
+    private static class LongBinding extends ColumnBinding {
+
+        LongBinding(FieldAccessor field) {
+            super(field);
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readLong(value);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readLong(cell);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return true;
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            return ExcelReadUtils.toLong(value);
+        }
+
+        @Override
+        void setNumber(Object data, double value, boolean date1904) {
+            accessor.setLong(data, ExcelReadUtils.toLong(value));
+        }
+    }
+
+    private static class DoubleBinding extends ColumnBinding {
+
+        /**
+         * 保留小数点后位数(<0则不改变原有值)
+         */
+        private final int scale;
+
+        DoubleBinding(FieldAccessor field, int scale) {
+            super(field);
+            this.scale = scale;
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readDouble(value, scale);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readDouble(cell, scale);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return true;
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            return scale(value);
+        }
+
+        @Override
+        void setNumber(Object data, double value, boolean date1904) {
+            accessor.setDouble(data, scale(value));
+        }
+
+        private double scale(double value) {
+            return scale >= 0 ? BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_UP).doubleValue() : value;
+        }
+    }
+
+    private static class BigDecimalBinding extends ColumnBinding {
+
+        /**
+         * 保留小数点后位数(<0则不改变原有值)
+         */
+        private final int scale;
+
+        BigDecimalBinding(FieldAccessor field, int scale) {
+            super(field);
+            this.scale = scale;
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readBigDecimal(value, scale);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readBigDecimal(cell, scale);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return true;
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            BigDecimal d2 = BigDecimal.valueOf(value);
+            return scale >= 0 ? d2.setScale(scale, BigDecimal.ROUND_HALF_UP) : d2;
+        }
+    }
+
+    private static class DateBinding extends ColumnBinding {
+
+        /**
+         * 日期格式
+         */
+        private final String express;
+        /**
+         * 日期编解码器
+         */
+        private final DateCodec codec;
+
+        DateBinding(FieldAccessor field, String express) {
+            super(field);
+            this.express = express;
+            this.codec = DateCodec.of(express);
+        }
+
+        @Override
+        Object read(String value) {
+            return codec.parse(value);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readDate(cell, express);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            // 非日期格式的数字(如20200101)仍按表达式解析
+            return format != null && format.isDate();
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            return DateCodec.toDate(value, date1904);
+        }
+    }
+
+    private static class TemporalBinding extends ColumnBinding {
+
+        /**
+         * 日期格式
+         */
+        private final String express;
+        /**
+         * 日期编解码器
+         */
+        private final DateCodec codec;
+        /**
+         * 字段类型
+         */
+        private final Class<?> type;
+
+        TemporalBinding(FieldAccessor field, String express) {
+            super(field);
+            this.express = express;
+            this.codec = DateCodec.of(express);
+            this.type = field.getType();
+        }
+
+        @Override
+        Object read(String value) {
+            return DateCodec.toTemporal(codec.parseLocalDateTime(value), type);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return DateCodec.toTemporal(ExcelReadUtils.readLocalDateTime(cell, express), type);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return format != null && format.isDate();
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            return DateCodec.toTemporal(DateCodec.toLocalDateTime(value, date1904), type);
+        }
+    }
+
+    private static class BooleanBinding extends ColumnBinding {
+
+        BooleanBinding(FieldAccessor field) {
+            super(field);
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readBoolean(value);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readBoolean(cell);
+        }
+
+        @Override
+        boolean readsNumber(CellNumberFormat format) {
+            return true;
+        }
+
+        @Override
+        Object read(double value, boolean date1904) {
+            if (value == 1) {
+                return true;
+            } else if (value == 0) {
+                return false;
+            }
+            return null;
+        }
+
+        @Override
+        void setNumber(Object data, double value, boolean date1904) {
+            if (value == 1) {
+                accessor.setBoolean(data, true);
+            } else if (value == 0) {
+                accessor.setBoolean(data, false);
+            }
+        }
+
+        @Override
+        boolean readsBoolean() {
+            return true;
+        }
+
+        @Override
+        void setBoolean(Object data, boolean value) {
+            accessor.setBoolean(data, value);
+        }
+    }
+
+    private static class StringBinding extends ColumnBinding {
+
+        StringBinding(FieldAccessor field) {
+            super(field);
+        }
+
+        @Override
+        Object read(String value) {
+            return ExcelReadUtils.readString(value);
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return ExcelReadUtils.readString(cell);
+        }
+    }
+
+    /**
+     * 不支持的字段类型，不读取
+     */
+    private static class UnsupportedBinding extends ColumnBinding {
+
+        UnsupportedBinding(FieldAccessor field) {
+            super(field);
+        }
+
+        @Override
+        Object read(String value) {
+            return null;
+        }
+
+        @Override
+        Object read(Cell cell) {
+            return null;
+        }
+    }
+
+}
@@ -3,27 +3,46 @@ package cn.emay.excel.read.reader.impl;
 import cn.emay.excel.common.schema.base.ColumnSchema;
 import cn.emay.excel.common.schema.base.SheetReadSchemaParams;
 import cn.emay.excel.common.schema.base.SheetSchema;
+import cn.emay.excel.common.schema.mapper.ExcelMapper;
+import cn.emay.excel.common.schema.mapper.ExcelMappers;
 import cn.emay.excel.read.handler.SchemaSheetDataHandler;
 import cn.emay.excel.read.handler.SheetDataHandler;
-import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.read.core.CellNumberFormat;
+import cn.emay.excel.read.reader.AbortableSheetReader;
+import cn.emay.excel.read.reader.ProjectionSheetReader;
+import cn.emay.excel.read.reader.SparseSheetReader;
+import cn.emay.excel.read.reader.TypedSheetReader;
 import cn.emay.excel.utils.ExcelReadUtils;
 import cn.emay.excel.utils.ExcelUtils;
-import cn.emay.utils.clazz.ClassUtils;
+import cn.emay.excel.utils.FieldAccessor;
 import org.apache.poi.ss.usermodel.Cell;
 
-import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * 定义方式读取
+ * 定义方式读取<br/>
+ * XLSX的数字、日期、布尔单元格按原始值直接转换，不经过字符串格式化<br/>
+ * 只读取定义中的列(按标题读取时在标题行之后确定)，其他列由读取引擎直接跳过；XLS只回调实际存在的单元格<br/>
+ * 传入转换执行器时启用流水线模式：解析线程只收集每行的原始单元格，由转换执行器并发构建数据，
+ * 再由独立的处理线程按行号顺序交给数据处理器；行缓冲有界，处理跟不上时解析线程阻塞；读取出错时由读取引擎中止流水线，处理线程随之退出<br/>
+ * 处理线程等待的行如果还未被转换执行器开始执行，则由处理线程自己转换，因此转换执行器的线程全部被占用(如与XlsxReader的sheet执行器共用有界线程池)时不会死锁，
+ * 只是退化为串行转换；为获得并行效果，两者应使用不同的线程池
  *
  * @param <D> 数据
  * @author Frank
  */
-public class SchemaSheetReader<D> implements SheetReader {
+public class SchemaSheetReader<D> implements TypedSheetReader, ProjectionSheetReader, SparseSheetReader, AbortableSheetReader {
 
     /**
      * 定义
@@ -41,6 +60,10 @@ public class SchemaSheetReader<D> implements SheetReader {
      * 是否按照列序号读取
      */
     private final boolean readByIndex;
+    /**
+     * 编译期生成的数据映射器(为空则通过反射新建数据)
+     */
+    private final ExcelMapper<D> mapper;
 
     /**
      * 当前sheet页的编号
@@ -56,13 +79,54 @@ public class SchemaSheetReader<D> implements SheetReader {
     private D curData;
 
     /**
-     * 所有的字段集合
+     * 所有的列绑定(按列序号读取时key为列序号，按标题读取时key为标题)
+     */
+    private final Map<String, ColumnBinding> bindings = new HashMap<>();
+    /**
+     * 列号对应的列绑定(按列序号读取时在构造时确定，按标题读取时在标题变化后重建)
      */
-    private final Map<String, Field> fields = new HashMap<>();
+    private ColumnBinding[] columnBindings;
     /**
      * 列对应的标题
      */
     private final Map<Integer, String> colTitles = new HashMap<>();
+    /**
+     * 需要读取的列(按列序号读取时在构造时确定，按标题读取时在标题行之后确定)
+     */
+    private boolean[] readColumns;
+
+    /**
+     * 流水线转换执行器(为空则不启用流水线)
+     */
+    private final ExecutorService convertExecutor;
+    /**
+     * 流水线处理线程工厂(为空则新建守护线程)
+     */
+    private final ThreadFactory handlerThreadFactory;
+    /**
+     * 流水线行缓冲大小
+     */
+    private final int pipelineSize;
+    /**
+     * 流水线行缓冲(按行号顺序)
+     */
+    private BlockingQueue<PipelineRow<D>> pipeline;
+    /**
+     * 流水线处理线程
+     */
+    private Thread pipelineHandler;
+    /**
+     * 流水线处理异常
+     */
+    private volatile Throwable pipelineError;
+    /**
+     * 流水线是否已中止(中止后剩余行只消费不处理)
+     */
+    private volatile boolean pipelineAborted;
+    /**
+     * 流水线当前行
+     */
+    private RawRow curRow;
 
     /**
      * @param schemaSheetDataHandler 基于定义的数据处理器
@@ -76,6 +140,64 @@ public class SchemaSheetReader<D> implements SheetReader {
      * @param dataReader 数据处理器
      */
     public SchemaSheetReader(SheetSchema schema, SheetDataHandler<D> dataReader) {
+        this(schema, dataReader, null, 0);
+    }
+
+    /**
+     * 流水线模式<br/>
+     * 数据处理器的handle在每个sheet新建的守护线程中按行号顺序调用，不再在读取线程中调用
+     *
+     * @param schemaSheetDataHandler 基于定义的数据处理器
+     * @param convertExecutor        转换执行器(由调用方管理)
+     * @param pipelineSize           行缓冲大小(同时在途的最大行数)
+     */
+    public SchemaSheetReader(SchemaSheetDataHandler<D> schemaSheetDataHandler, ExecutorService convertExecutor, int pipelineSize) {
+        this(schemaSheetDataHandler.getSheetSchema(), schemaSheetDataHandler, convertExecutor, pipelineSize, null);
+    }
+
+    /**
+     * 流水线模式<br/>
+     * 数据处理器的handle在处理线程工厂创建的线程中按行号顺序调用，不再在读取线程中调用
+     *
+     * @param schemaSheetDataHandler 基于定义的数据处理器
+     * @param convertExecutor        转换执行器(由调用方管理)
+     * @param pipelineSize           行缓冲大小(同时在途的最大行数)
+     * @param handlerThreadFactory   处理线程工厂(每个sheet创建一个线程，为空则新建守护线程)
+     */
+    public SchemaSheetReader(SchemaSheetDataHandler<D> schemaSheetDataHandler, ExecutorService convertExecutor, int pipelineSize, ThreadFactory handlerThreadFactory) {
+        this(schemaSheetDataHandler.getSheetSchema(), schemaSheetDataHandler, convertExecutor, pipelineSize, handlerThreadFactory);
+    }
+
+    /**
+     * 流水线模式<br/>
+     * 启用流水线时数据处理器的handle在每个sheet新建的守护线程中按行号顺序调用，不再在读取线程中调用
+     *
+     * @param schema          读取定义
+     * @param dataReader      数据处理器
+     * @param convertExecutor 转换执行器(由调用方管理，为空则不启用流水线)
+     * @param pipelineSize    行缓冲大小(同时在途的最大行数)
+     */
+    public SchemaSheetReader(SheetSchema schema, SheetDataHandler<D> dataReader, ExecutorService convertExecutor, int pipelineSize) {
+        this(schema, dataReader, convertExecutor, pipelineSize, null);
+    }
+
+    /**
+     * 流水线模式<br/>
+     * 启用流水线时数据处理器的handle在处理线程工厂创建的线程中按行号顺序调用，不再在读取线程中调用
+     *
+     * @param schema               读取定义
+     * @param dataReader           数据处理器
+     * @param convertExecutor      转换执行器(由调用方管理，为空则不启用流水线)
+     * @param pipelineSize         行缓冲大小(同时在途的最大行数)
+     * @param handlerThreadFactory 处理线程工厂(每个sheet创建一个线程，为空则新建守护线程)
+     */
+    public SchemaSheetReader(SheetSchema schema, SheetDataHandler<D> dataReader, ExecutorService convertExecutor, int pipelineSize, ThreadFactory handlerThreadFactory) {
+        if (convertExecutor != null && pipelineSize <= 0) {
+            throw new IllegalArgumentException("pipelineSize must be greater than 0");
+        }
+        this.convertExecutor = convertExecutor;
+        this.pipelineSize = pipelineSize;
+        this.handlerThreadFactory = handlerThreadFactory;
         if (schema == null) {
             throw new IllegalArgumentException("schema is null");
         }
@@ -89,9 +211,8 @@ public class SchemaSheetReader<D> implements SheetReader {
         this.readByIndex = readSchemaParams.readByIndex();
         Set<String> titles = new HashSet<>();
         Set<Integer> indexs = new HashSet<>();
-        Field[] fieldArray = ClassUtils.getAllFields(dataReader.getDataClass());
-        for (Field field : fieldArray) {
-            field.setAccessible(true);
+        this.mapper = ExcelMappers.get(dataReader.getDataClass());
+        for (FieldAccessor field : ExcelMappers.getAccessors(dataReader.getDataClass())) {
             ColumnSchema csma = schema.getExcelColumnByFieldName(field.getName());
             if (csma == null) {
                 continue;
@@ -104,11 +225,34 @@ public class SchemaSheetReader<D> implements SheetReader {
                 throw new IllegalArgumentException(" has same title filed.");
             }
             titles.add(csma.getTitle());
-            fields.put(readByIndex ? String.valueOf(csma.getIndex()) : csma.getTitle(), field);
+            bindings.put(readByIndex ? String.valueOf(csma.getIndex()) : csma.getTitle(), ColumnBinding.compile(field, csma));
         }
-        if (fields.size() == 0) {
+        if (bindings.size() == 0) {
             throw new IllegalArgumentException(" has no filed to read");
         }
+        if (readByIndex) {
+            int max = -1;
+            for (Integer index : indexs) {
+                max = Math.max(max, index);
+            }
+            readColumns = new boolean[max + 1];
+            columnBindings = new ColumnBinding[max + 1];
+            for (Integer index : indexs) {
+                if (index >= 0) {
+                    readColumns[index] = true;
+                    columnBindings[index] = bindings.get(String.valueOf(index));
+                }
+            }
+        }
+    }
+
+    /**
+     * 新建一个数据实例
+     *
+     * @return 数据
+     */
+    private D newData() {
+        return mapper != null ? mapper.newData() : ExcelUtils.newData(dataReader.getDataClass());
     }
 
     @Override
@@ -125,6 +269,14 @@ public class SchemaSheetReader<D> implements SheetReader {
     public void begin(int sheetIndex, String sheetName) {
         this.curSheetIndex = sheetIndex;
         this.curSheetName = sheetName;
+        if (!readByIndex) {
+            readColumns = null;
+            columnBindings = null;
+            colTitles.clear();
+        }
+        if (convertExecutor != null) {
+            startPipeline();
+        }
     }
 
     @Override
@@ -132,14 +284,43 @@ public class SchemaSheetReader<D> implements SheetReader {
         if (rowIndex < this.readSchemaParams.getReadDataStartRowIndex()) {
             return;
         }
-        curData = ExcelUtils.newData(dataReader.getDataClass());
+        if (convertExecutor != null) {
+            curRow = new RawRow(curSheetIndex, curSheetName, rowIndex);
+            return;
+        }
+        curData = newData();
+    }
+
+    @Override
+    public boolean[] getReadColumns(int rowIndex) {
+        if (readByIndex) {
+            return readColumns;
+        }
+        if (rowIndex <= this.readSchemaParams.getReadTitleRowIndex()) {
+            return null;
+        }
+        if (readColumns == null) {
+            int max = -1;
+            for (Map.Entry<Integer, String> entry : colTitles.entrySet()) {
+                if (bindings.containsKey(entry.getValue())) {
+                    max = Math.max(max, entry.getKey());
+                }
+            }
+            boolean[] columns = new boolean[max + 1];
+            for (Map.Entry<Integer, String> entry : colTitles.entrySet()) {
+                if (bindings.containsKey(entry.getValue())) {
+                    columns[entry.getKey()] = true;
+                }
+            }
+            readColumns = columns;
+        }
+        return readColumns;
     }
 
     @Override
     public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
         if (!readByIndex && rowIndex == this.readSchemaParams.getReadTitleRowIndex()) {
-            String title = ExcelReadUtils.readString(cell);
-            colTitles.put(columnIndex, title == null ? "" : title);
+            putTitle(columnIndex, ExcelReadUtils.readString(cell));
         }
         if (rowIndex < this.readSchemaParams.getReadDataStartRowIndex()) {
             return;
@@ -147,31 +328,29 @@ public class SchemaSheetReader<D> implements SheetReader {
         if (cell == null) {
             return;
         }
-        Field field = fields.get(readByIndex ? String.valueOf(columnIndex) : colTitles.get(columnIndex));
-        if (field == null) {
-            return;
-        }
-        ColumnSchema columnSchema = schema.getExcelColumnByFieldName(field.getName());
-        if (columnSchema == null) {
+        ColumnBinding binding = getBinding(columnIndex);
+        if (binding == null) {
             return;
         }
         Object obj = null;
         try {
-            obj = ExcelReadUtils.read(field.getType(), cell, columnSchema.getExpress());
-            if (obj != null) {
-                field.set(curData, obj);
+            obj = binding.read(cell);
+            if (convertExecutor != null) {
+                // HSSF单元格不可跨线程使用，在解析线程转换
+                curRow.add(columnIndex, binding, obj, false);
+                return;
             }
+            binding.set(curData, obj);
         } catch (Exception e) {
             throw new IllegalArgumentException(
-                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + obj + "] and set[" + field.getName() + "] error", e);
+                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + obj + "] and set[" + binding.getFieldName() + "] error", e);
         }
     }
 
     @Override
     public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
         if (!readByIndex && rowIndex == this.readSchemaParams.getReadTitleRowIndex()) {
-            String title = ExcelReadUtils.readString(value);
-            colTitles.put(columnIndex, title == null ? "" : title);
+            putTitle(columnIndex, ExcelReadUtils.readString(value));
         }
         if (rowIndex < this.readSchemaParams.getReadDataStartRowIndex()) {
             return;
@@ -179,28 +358,136 @@ public class SchemaSheetReader<D> implements SheetReader {
         if (value == null) {
             return;
         }
-        Field field = fields.get(readByIndex ? String.valueOf(columnIndex) : colTitles.get(columnIndex));
-        if (field == null) {
+        ColumnBinding binding = getBinding(columnIndex);
+        if (binding == null) {
             return;
         }
-        ColumnSchema columnSchema = schema.getExcelColumnByFieldName(field.getName());
-        if (columnSchema == null) {
+        if (convertExecutor != null) {
+            curRow.add(columnIndex, binding, value, true);
             return;
         }
         Object obj = null;
         try {
-            obj = ExcelReadUtils.read(field.getType(), value, columnSchema.getExpress());
-            if (obj != null) {
-                field.set(curData, obj);
+            obj = binding.read(value);
+            binding.set(curData, obj);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(
+                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + obj + "] and set[" + binding.getFieldName() + "] error", e);
+        }
+    }
+
+    @Override
+    public void handleXlsxNumber(int rowIndex, int columnIndex, double value, CellNumberFormat format, String text) {
+        ColumnBinding binding = null;
+        boolean titleRow = !readByIndex && rowIndex == this.readSchemaParams.getReadTitleRowIndex();
+        if (!titleRow && rowIndex >= this.readSchemaParams.getReadDataStartRowIndex()) {
+            binding = getBinding(columnIndex);
+        }
+        if (binding == null || !binding.readsNumber(format)) {
+            // 标题、字符串字段及非日期格式的日期字段仍按格式化后的字符串读取
+            if (titleRow || binding != null) {
+                handleXlsxCell(rowIndex, columnIndex, format == null ? text : format.format(value));
+            }
+            return;
+        }
+        boolean date1904 = format != null && format.isDate1904();
+        try {
+            if (convertExecutor != null) {
+                curRow.add(columnIndex, binding, binding.read(value, date1904), false);
+            } else {
+                binding.setNumber(curData, value, date1904);
             }
         } catch (Exception e) {
             throw new IllegalArgumentException(
-                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + obj + "] and set[" + field.getName() + "] error", e);
+                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + value + "] and set[" + binding.getFieldName() + "] error", e);
         }
     }
 
+    @Override
+    public void handleXlsxBoolean(int rowIndex, int columnIndex, boolean value) {
+        ColumnBinding binding = null;
+        if (rowIndex >= this.readSchemaParams.getReadDataStartRowIndex() && (readByIndex || rowIndex != this.readSchemaParams.getReadTitleRowIndex())) {
+            binding = getBinding(columnIndex);
+        }
+        if (binding == null || !binding.readsBoolean()) {
+            handleXlsxCell(rowIndex, columnIndex, value ? "TRUE" : "FALSE");
+            return;
+        }
+        try {
+            if (convertExecutor != null) {
+                curRow.add(columnIndex, binding, value, false);
+            } else {
+                binding.setBoolean(curData, value);
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException(
+                    "sheet(" + curSheetName + "):[" + curSheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] read[" + value + "] and set[" + binding.getFieldName() + "] error", e);
+        }
+    }
+
+    @Override
+    public void handleXlsxString(int rowIndex, int columnIndex, int sharedStringIndex, String value) {
+        handleXlsxCell(rowIndex, columnIndex, value);
+    }
+
+    /**
+     * 记录标题，标题变化后列绑定需重建
+     *
+     * @param columnIndex 列号
+     * @param title       标题
+     */
+    private void putTitle(int columnIndex, String title) {
+        colTitles.put(columnIndex, title == null ? "" : title);
+        columnBindings = null;
+        readColumns = null;
+    }
+
+    /**
+     * 获取列号对应的列绑定
+     *
+     * @param columnIndex 列号
+     * @return 列绑定(不读取的列为空)
+     */
+    private ColumnBinding getBinding(int columnIndex) {
+        ColumnBinding[] columns = columnBindings;
+        if (columns == null) {
+            columns = compileTitleBindings();
+        }
+        return columnIndex < columns.length ? columns[columnIndex] : null;
+    }
+
+    /**
+     * 按已读取的标题构建列号对应的列绑定
+     *
+     * @return 列号对应的列绑定
+     */
+    private ColumnBinding[] compileTitleBindings() {
+        int max = -1;
+        for (Map.Entry<Integer, String> entry : colTitles.entrySet()) {
+            if (bindings.containsKey(entry.getValue())) {
+                max = Math.max(max, entry.getKey());
+            }
+        }
+        ColumnBinding[] columns = new ColumnBinding[max + 1];
+        for (Map.Entry<Integer, String> entry : colTitles.entrySet()) {
+            ColumnBinding binding = bindings.get(entry.getValue());
+            if (binding != null) {
+                columns[entry.getKey()] = binding;
+            }
+        }
+        columnBindings = columns;
+        return columns;
+    }
+
     @Override
     public void endRow(int rowIndex) {
+        if (convertExecutor != null) {
+            if (curRow != null) {
+                submitRow(curRow);
+                curRow = null;
+            }
+            return;
+        }
         if (curData != null) {
             dataReader.handle(rowIndex, curData);
         }
@@ -209,5 +496,233 @@ public class SchemaSheetReader<D> implements SheetReader {
     @Override
     public void end(int sheetIndex, String sheetName) {
         curData = null;
+        if (convertExecutor != null) {
+            curRow = null;
+            finishPipeline();
+        }
+    }
+
+    @Override
+    public void abort(int sheetIndex, String sheetName) {
+        curData = null;
+        curRow = null;
+        abortPipeline();
+    }
+
+    /**
+     * 启动流水线处理线程
+     */
+    private void startPipeline() {
+        if (pipelineHandler != null) {
+            finishPipeline();
+        }
+        final BlockingQueue<PipelineRow<D>> queue = new ArrayBlockingQueue<>(pipelineSize);
+        pipeline = queue;
+        pipelineError = null;
+        pipelineAborted = false;
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                handlePipeline(queue);
+            }
+        };
+        Thread thread;
+        if (handlerThreadFactory == null) {
+            thread = new Thread(task, "excel-read-handler-" + curSheetName);
+            thread.setDaemon(true);
+        } else {
+            thread = handlerThreadFactory.newThread(task);
+            if (thread == null) {
+                throw new IllegalArgumentException("handlerThreadFactory returned null thread");
+            }
+        }
+        pipelineHandler = thread;
+        pipelineHandler.start();
+    }
+
+    /**
+     * 处理线程：按行号顺序等待转换结果并交给数据处理器；出错后只消费不处理，保证解析线程不会永久阻塞<br/>
+     * 转换执行器还未开始的行由处理线程直接转换(已开始或已完成时run不做任何事)，避免等待被解析任务占满的线程池
+     *
+     * @param queue 行缓冲
+     */
+    private void handlePipeline(BlockingQueue<PipelineRow<D>> queue) {
+        while (true) {
+            PipelineRow<D> row;
+            try {
+                row = queue.take();
+            } catch (InterruptedException e) {
+                pipelineError = e;
+                return;
+            }
+            if (row.future == null) {
+                return;
+            }
+            if (pipelineError != null || pipelineAborted) {
+                row.future.cancel(false);
+                continue;
+            }
+            try {
+                row.future.run();
+                dataReader.handle(row.rowIndex, row.future.get());
+            } catch (ExecutionException e) {
+                pipelineError = e.getCause();
+            } catch (Throwable e) {
+                pipelineError = e;
+            }
+        }
+    }
+
+    /**
+     * 提交一行到转换执行器，行缓冲满时阻塞
+     *
+     * @param row 原始行
+     */
+    private void submitRow(final RawRow row) {
+        checkPipeline();
+        FutureTask<D> future = new FutureTask<>(new Callable<D>() {
+            @Override
+            public D call() {
+                return row.convert();
+            }
+        });
+        convertExecutor.execute(future);
+        putPipeline(new PipelineRow<>(row.rowIndex, future));
+    }
+
+    /**
+     * 结束流水线：等待所有行处理完成
+     */
+    private void finishPipeline() {
+        if (pipelineHandler == null) {
+            return;
+        }
+        putPipeline(new PipelineRow<D>(-1, null));
+        try {
+            pipelineHandler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(e);
+        } finally {
+            pipelineHandler = null;
+            pipeline = null;
+        }
+        checkPipeline();
+    }
+
+    /**
+     * 中止流水线：剩余行不再处理，等待处理线程退出
+     */
+    private void abortPipeline() {
+        if (convertExecutor == null || pipelineHandler == null) {
+            return;
+        }
+        pipelineAborted = true;
+        try {
+            finishPipeline();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private void putPipeline(PipelineRow<D> row) {
+        try {
+            pipeline.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 检查流水线异常
+     */
+    private void checkPipeline() {
+        Throwable error = pipelineError;
+        if (error == null) {
+            return;
+        }
+        if (pipelineHandler != null) {
+            abortPipeline();
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new IllegalArgumentException("sheet(" + curSheetName + "):[" + curSheetIndex + "] pipeline error", error);
+    }
+
+    /**
+     * 流水线中的一行
+     *
+     * @param <D> 数据
+     */
+    private static class PipelineRow<D> {
+
+        private final int rowIndex;
+        private final FutureTask<D> future;
+
+        PipelineRow(int rowIndex, FutureTask<D> future) {
+            this.rowIndex = rowIndex;
+            this.future = future;
+        }
+    }
+
+    /**
+     * 解析线程收集的原始行
+     */
+    private class RawRow {
+
+        private final int sheetIndex;
+        private final String sheetName;
+        private final int rowIndex;
+        private int size;
+        private int[] columnIndexs = new int[8];
+        private ColumnBinding[] bindings = new ColumnBinding[8];
+        private Object[] values = new Object[8];
+        private boolean[] raws = new boolean[8];
+
+        RawRow(int sheetIndex, String sheetName, int rowIndex) {
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.rowIndex = rowIndex;
+        }
+
+        void add(int columnIndex, ColumnBinding binding, Object value, boolean raw) {
+            if (size == bindings.length) {
+                int length = size * 2;
+                columnIndexs = Arrays.copyOf(columnIndexs, length);
+                bindings = Arrays.copyOf(bindings, length);
+                values = Arrays.copyOf(values, length);
+                raws = Arrays.copyOf(raws, length);
+            }
+            columnIndexs[size] = columnIndex;
+            bindings[size] = binding;
+            values[size] = value;
+            raws[size] = raw;
+            size++;
+        }
+
+        /**
+         * 在转换线程中构建数据
+         *
+         * @return 数据
+         */
+        D convert() {
+            D data = newData();
+            for (int i = 0; i < size; i++) {
+                ColumnBinding binding = bindings[i];
+                Object obj = null;
+                try {
+                    obj = raws[i] ? binding.read((String) values[i]) : values[i];
+                    binding.set(data, obj);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(
+                            "sheet(" + sheetName + "):[" + sheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndexs[i] + "] read[" + obj + "] and set[" + binding.getFieldName() + "] error", e);
+                }
+            }
+            return data;
+        }
     }
 }
\ No newline at end of file
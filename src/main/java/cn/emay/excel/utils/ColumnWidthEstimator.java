@@ -0,0 +1,223 @@
+package cn.emay.excel.utils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * 列宽估算器<br/>
+ * 按字符类别估算显示宽度，不加载字体、不分配内存：中日韩及全角字符占2个字符宽，其他可见字符占1个，控制字符不占宽度，多行文本取最宽的一行；<br/>
+ * 每列取最大显示宽度的125%作为列宽(单位1/256字符宽，不超过Excel上限255个字符)；<br/>
+ * 支持抽样：前N行全部估算，之后每隔若干行估算一行
+ *
+ * @author Frank
+ */
+public class ColumnWidthEstimator {
+
+    /**
+     * Excel最大列宽(1/256字符宽)
+     */
+    public static final int MAX_WIDTH = 255 * 256;
+
+    /**
+     * 每列的最大显示宽度[-1为没有估算过]
+     */
+    private final int[] maxWidths;
+    /**
+     * 全部估算的行数[小于0为全部行]
+     */
+    private final int sampleRows;
+    /**
+     * 全部估算的行之后，每隔多少行估算一行[小于等于0为不再估算]
+     */
+    private final int sampleStride;
+
+    /**
+     * 估算全部行
+     *
+     * @param columns 列数
+     */
+    public ColumnWidthEstimator(int columns) {
+        this(columns, -1, 0);
+    }
+
+    /**
+     * @param columns      列数
+     * @param sampleRows   全部估算的行数[小于0为全部行]
+     * @param sampleStride 全部估算的行之后，每隔多少行估算一行[小于等于0为不再估算]
+     */
+    public ColumnWidthEstimator(int columns, int sampleRows, int sampleStride) {
+        if (columns < 0) {
+            throw new IllegalArgumentException("columns must bigger than -1");
+        }
+        this.maxWidths = new int[columns];
+        this.sampleRows = sampleRows;
+        this.sampleStride = sampleStride;
+        Arrays.fill(maxWidths, -1);
+    }
+
+    /**
+     * 数据行是否需要估算
+     *
+     * @param dataIndex 数据行序号[从0开始，不含标题行]
+     * @return 是否估算
+     */
+    public boolean isSampled(int dataIndex) {
+        if (sampleRows < 0 || dataIndex < sampleRows) {
+            return true;
+        }
+        return sampleStride > 0 && (dataIndex - sampleRows) % sampleStride == 0;
+    }
+
+    /**
+     * 记录一个单元格的显示宽度
+     *
+     * @param columnIndex 列号
+     * @param width       显示宽度(字符数)
+     */
+    public void measure(int columnIndex, int width) {
+        if (columnIndex >= 0 && columnIndex < maxWidths.length && maxWidths[columnIndex] < width) {
+            maxWidths[columnIndex] = width;
+        }
+    }
+
+    /**
+     * 获取列宽
+     *
+     * @param columnIndex 列号
+     * @return 列宽(1/256字符宽)[-1为没有估算过]
+     */
+    public int getColumnWidth(int columnIndex) {
+        int width = maxWidths[columnIndex];
+        if (width < 0) {
+            return -1;
+        }
+        return (int) Math.min((long) width * 256 * 125 / 100, MAX_WIDTH);
+    }
+
+    /**
+     * 列数
+     *
+     * @return 列数
+     */
+    public int getColumns() {
+        return maxWidths.length;
+    }
+
+    /**
+     * 文本显示宽度
+     *
+     * @param text 文本
+     * @return 显示宽度(字符数)
+     */
+    public static int width(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int max = 0;
+        int line = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                max = Math.max(max, line);
+                line = 0;
+            } else if (c < ' ' || c == 0x7f || Character.isLowSurrogate(c)) {
+                // 控制字符不占宽度，代理对按高位计算一次
+                continue;
+            } else if (c < 0x7f) {
+                line++;
+            } else if (Character.isHighSurrogate(c)) {
+                // 扩展区汉字、表情符号
+                line += 2;
+            } else {
+                line += isWide(c) ? 2 : 1;
+            }
+        }
+        return Math.max(max, line);
+    }
+
+    /**
+     * 整数显示宽度
+     *
+     * @param value 整数
+     * @return 显示宽度(字符数)
+     */
+    public static int width(long value) {
+        int width = value < 0 ? 2 : 1;
+        long abs = value < 0 ? -(value / 10) : value / 10;
+        while (abs > 0) {
+            width++;
+            abs /= 10;
+        }
+        return width;
+    }
+
+    /**
+     * 浮点数显示宽度
+     *
+     * @param value 浮点数
+     * @param scale 保留小数点后位数[小于0为原值，最多按15位有效数字估算]
+     * @return 显示宽度(字符数)
+     */
+    public static int width(double value, int scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return 7;
+        }
+        double abs = Math.abs(value);
+        if (abs >= 1e15) {
+            // 科学计数法显示，如1.23457E+15
+            return value < 0 ? 12 : 11;
+        }
+        long integer = (long) abs;
+        int width = width(integer) + (value < 0 ? 1 : 0);
+        if (scale >= 0) {
+            return scale == 0 ? width : width + 1 + scale;
+        }
+        int digits = 0;
+        double fraction = abs - integer;
+        int significant = integer == 0 ? 15 : 15 - width(integer);
+        while (fraction > 0 && digits < significant) {
+            fraction *= 10;
+            fraction -= (long) fraction;
+            digits++;
+            if (fraction < 1e-9 || fraction > 1 - 1e-9) {
+                break;
+            }
+        }
+        return digits == 0 ? width : width + 1 + digits;
+    }
+
+    /**
+     * 高精度数显示宽度
+     *
+     * @param value 高精度数
+     * @param scale 保留小数点后位数[小于0为原值]
+     * @return 显示宽度(字符数)
+     */
+    public static int width(BigDecimal value, int scale) {
+        if (value == null) {
+            return 0;
+        }
+        int valueScale = scale >= 0 ? scale : Math.max(value.scale(), 0);
+        int integerDigits = Math.max(value.precision() - value.scale(), 1);
+        int width = integerDigits + (value.signum() < 0 ? 1 : 0);
+        return valueScale == 0 ? width : width + 1 + valueScale;
+    }
+
+    /**
+     * 是否全角字符(中日韩文字、全角符号、韩文音节等)
+     *
+     * @param c 字符
+     * @return 是否全角
+     */
+    private static boolean isWide(char c) {
+        return (c >= 0x1100 && c <= 0x115f)
+                || (c >= 0x2e80 && c <= 0xa4cf && c != 0x303f)
+                || (c >= 0xac00 && c <= 0xd7a3)
+                || (c >= 0xf900 && c <= 0xfaff)
+                || (c >= 0xfe30 && c <= 0xfe4f)
+                || (c >= 0xff00 && c <= 0xff60)
+                || (c >= 0xffe0 && c <= 0xffe6);
+    }
+
+}
@@ -0,0 +1,407 @@
+package cn.emay.excel.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.LocaleUtil;
+
+import java.lang.ref.WeakReference;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 日期编解码器<br/>
+ * 按日期表达式(SimpleDateFormat格式)缓存，线程安全：<br/>
+ * - 解析：只含年月日时分秒(毫秒)的表达式编译为严格模式的DateTimeFormatter；
+ * 解析不了的文本(如单位数月份、非法日期、尾部多余字符)以及其他表达式，仍由SimpleDateFormat按原有宽松规则解析，结果与之前一致；<br/>
+ * - 写入：缓存表达式在工作簿中的数据格式序号；<br/>
+ * - Excel日期数字与Date、java.time类型(LocalDate、LocalDateTime、LocalTime、Instant、OffsetDateTime)直接换算，
+ * 不经过Calendar，规则与POI的DateUtil一致；带时区的类型按POI的用户时区换算
+ *
+ * @author Frank
+ */
+public class DateCodec {
+
+    /**
+     * 缓存的最大表达式数(超出后不再缓存)
+     */
+    private static final int MAX_CACHED = 512;
+
+    /**
+     * 一天的毫秒数
+     */
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    /**
+     * 按表达式缓存的编解码器
+     */
+    private static final ConcurrentMap<String, DateCodec> CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * 表达式为空时的编解码器(解析结果为空)
+     */
+    private static final DateCodec NONE = new DateCodec(null);
+
+    /**
+     * 表达式
+     */
+    private final String express;
+    /**
+     * 严格解析器[表达式不支持时为空]
+     */
+    private final DateTimeFormatter formatter;
+    /**
+     * 宽松解析器(每个线程一个)[表达式不是合法的SimpleDateFormat格式时为空]
+     */
+    private final ThreadLocal<SimpleDateFormat> lenientFormat;
+    /**
+     * 最近一次使用的工作簿数据格式
+     */
+    private volatile WorkbookFormat workbookFormat;
+
+    private DateCodec(String express) {
+        this.express = express;
+        this.formatter = express == null ? null : compile(express);
+        this.lenientFormat = express == null || !isValid(express) ? null : ThreadLocal.withInitial(() -> new SimpleDateFormat(express));
+    }
+
+    /**
+     * 获取日期表达式的编解码器
+     *
+     * @param express 日期表达式(SimpleDateFormat格式)
+     * @return 编解码器
+     */
+    public static DateCodec of(String express) {
+        if (express == null) {
+            return NONE;
+        }
+        DateCodec codec = CODECS.get(express);
+        if (codec == null) {
+            codec = new DateCodec(express);
+            if (CODECS.size() < MAX_CACHED) {
+                DateCodec exists = CODECS.putIfAbsent(express, codec);
+                if (exists != null) {
+                    codec = exists;
+                }
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * 获取表达式
+     *
+     * @return 表达式
+     */
+    public String getExpress() {
+        return express;
+    }
+
+    /**
+     * 解析日期
+     *
+     * @param value 日期字符串
+     * @return 日期[解析不了为空]
+     */
+    public Date parse(String value) {
+        if (value == null || lenientFormat == null) {
+            return null;
+        }
+        LocalDateTime time = parseStrict(value);
+        if (time != null) {
+            return Date.from(time.atZone(zone()).toInstant());
+        }
+        try {
+            return lenientFormat.get().parse(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析日期时间
+     *
+     * @param value 日期字符串
+     * @return 日期时间[解析不了为空]
+     */
+    public LocalDateTime parseLocalDateTime(String value) {
+        if (value == null || lenientFormat == null) {
+            return null;
+        }
+        LocalDateTime time = parseStrict(value);
+        if (time != null) {
+            return time;
+        }
+        Date date = parse(value);
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), zone());
+    }
+
+    private LocalDateTime parseStrict(String value) {
+        if (formatter == null) {
+            return null;
+        }
+        ParsePosition position = new ParsePosition(0);
+        try {
+            LocalDateTime time = LocalDateTime.from(formatter.parse(value, position));
+            if (position.getIndex() == value.length()) {
+                return time;
+            }
+        } catch (RuntimeException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * 获取表达式在工作簿中的数据格式序号
+     *
+     * @param workbook 工作簿
+     * @return 数据格式序号
+     */
+    public short getDataFormat(Workbook workbook) {
+        WorkbookFormat cached = workbookFormat;
+        if (cached != null && cached.workbook.get() == workbook) {
+            return cached.index;
+        }
+        short index = workbook.createDataFormat().getFormat(express);
+        workbookFormat = new WorkbookFormat(workbook, index);
+        return index;
+    }
+
+    /**
+     * Excel日期数字转为日期
+     *
+     * @param value    Excel日期数字
+     * @param date1904 是否1904日期系统
+     * @return 日期[不是有效的Excel日期为空]
+     */
+    public static Date toDate(double value, boolean date1904) {
+        LocalDateTime time = toLocalDateTime(value, date1904);
+        return time == null ? null : Date.from(time.atZone(zone()).toInstant());
+    }
+
+    /**
+     * Excel日期数字转为日期时间
+     *
+     * @param value    Excel日期数字
+     * @param date1904 是否1904日期系统
+     * @return 日期时间[不是有效的Excel日期为空]
+     */
+    public static LocalDateTime toLocalDateTime(double value, boolean date1904) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return null;
+        }
+        int wholeDays = (int) Math.floor(value);
+        int millisecondsInDay = (int) ((value - wholeDays) * DAY_MILLISECONDS + 0.5);
+        int startYear = 1900;
+        // Excel认为1900-02-29存在
+        int dayAdjust = -1;
+        if (date1904) {
+            startYear = 1904;
+            dayAdjust = 1;
+        } else if (wholeDays < 61) {
+            dayAdjust = 0;
+        }
+        return LocalDate.of(startYear, 1, 1).plusDays(wholeDays + dayAdjust - 1L).atStartOfDay().plus(millisecondsInDay, ChronoUnit.MILLIS);
+    }
+
+    /**
+     * 日期转为Excel日期数字(1900日期系统)
+     *
+     * @param date 日期
+     * @return Excel日期数字[早于1900年为-1]
+     */
+    public static double toExcel(Date date) {
+        return toExcel(date, false);
+    }
+
+    /**
+     * 日期转为Excel日期数字
+     *
+     * @param date     日期
+     * @param date1904 是否1904日期系统
+     * @return Excel日期数字[早于起始年为-1]
+     */
+    public static double toExcel(Date date, boolean date1904) {
+        return toExcel(LocalDateTime.ofInstant(date.toInstant(), zone()), date1904);
+    }
+
+    /**
+     * 日期时间转为Excel日期数字
+     *
+     * @param time     日期时间
+     * @param date1904 是否1904日期系统
+     * @return Excel日期数字[早于起始年为-1]
+     */
+    public static double toExcel(LocalDateTime time, boolean date1904) {
+        int startYear = date1904 ? 1904 : 1900;
+        if (time.getYear() < startYear) {
+            return -1;
+        }
+        double fraction = time.toLocalTime().toNanoOfDay() / 1000000 / (double) DAY_MILLISECONDS;
+        double value = fraction + ChronoUnit.DAYS.between(LocalDate.of(startYear, 1, 1), time.toLocalDate()) + 1;
+        if (!date1904 && value >= 60) {
+            value++;
+        } else if (date1904) {
+            value--;
+        }
+        return value;
+    }
+
+    private static boolean isValid(String express) {
+        try {
+            new SimpleDateFormat(express);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 是否支持的java.time类型
+     *
+     * @param type 类型
+     * @return 是否支持
+     */
+    public static boolean isTemporal(Class<?> type) {
+        return LocalDateTime.class.equals(type) || LocalDate.class.equals(type) || LocalTime.class.equals(type) || Instant.class.equals(type)
+                || OffsetDateTime.class.equals(type);
+    }
+
+    /**
+     * 日期时间转为java.time类型
+     *
+     * @param time 日期时间
+     * @param type 类型(LocalDate、LocalDateTime、LocalTime、Instant、OffsetDateTime)
+     * @return 值[日期时间为空或不支持的类型为空]
+     */
+    public static Object toTemporal(LocalDateTime time, Class<?> type) {
+        if (time == null) {
+            return null;
+        }
+        if (LocalDateTime.class.equals(type)) {
+            return time;
+        } else if (LocalDate.class.equals(type)) {
+            return time.toLocalDate();
+        } else if (LocalTime.class.equals(type)) {
+            return time.toLocalTime();
+        } else if (Instant.class.equals(type)) {
+            return time.atZone(zone()).toInstant();
+        } else if (OffsetDateTime.class.equals(type)) {
+            return time.atZone(zone()).toOffsetDateTime();
+        }
+        return null;
+    }
+
+    /**
+     * java.time类型转为Excel日期数字(1900日期系统)<br/>
+     * LocalTime只有时间部分(0-1之间的小数)
+     *
+     * @param value 值(LocalDate、LocalDateTime、LocalTime、Instant、OffsetDateTime)
+     * @return Excel日期数字[早于1900年为-1]
+     */
+    public static double toExcel(Temporal value) {
+        if (value instanceof LocalTime) {
+            return ((LocalTime) value).toNanoOfDay() / 1000000 / (double) DAY_MILLISECONDS;
+        } else if (value instanceof LocalDate) {
+            return toExcel(((LocalDate) value).atStartOfDay(), false);
+        } else if (value instanceof LocalDateTime) {
+            return toExcel((LocalDateTime) value, false);
+        } else if (value instanceof Instant) {
+            return toExcel(LocalDateTime.ofInstant((Instant) value, zone()), false);
+        } else if (value instanceof OffsetDateTime) {
+            return toExcel(LocalDateTime.ofInstant(((OffsetDateTime) value).toInstant(), zone()), false);
+        }
+        throw new IllegalArgumentException("unsupported temporal type: " + value.getClass().getName());
+    }
+
+    /**
+     * 当前线程的时区(与POI一致)
+     */
+    private static ZoneId zone() {
+        return LocaleUtil.getUserTimeZone().toZoneId();
+    }
+
+    /**
+     * 编译严格解析器，表达式中只能有年(yyy及以上)、月(M、MM)、日(d、dd)、时(H、HH)、分(m、mm)、秒(s、ss)、毫秒(SSS)，
+     * 这些字母在两种格式中含义相同
+     *
+     * @param express 表达式
+     * @return 解析器[不支持为空]
+     */
+    private static DateTimeFormatter compile(String express) {
+        boolean quoted = false;
+        for (int i = 0; i < express.length(); i++) {
+            char c = express.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted) {
+                continue;
+            }
+            if ("[]{}#".indexOf(c) >= 0) {
+                return null;
+            }
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                int end = i;
+                while (end < express.length() && express.charAt(end) == c) {
+                    end++;
+                }
+                int count = end - i;
+                if (c == 'y' ? count < 3 : c == 'S' ? count != 3 : "MdHms".indexOf(c) < 0 || count > 2) {
+                    return null;
+                }
+                i = end - 1;
+            }
+        }
+        try {
+            return new DateTimeFormatterBuilder().appendPattern(express)
+                    .parseDefaulting(ChronoField.ERA, 1)
+                    .parseDefaulting(ChronoField.YEAR_OF_ERA, 1970)
+                    .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                    .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                    .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                    .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                    .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                    .parseDefaulting(ChronoField.NANO_OF_SECOND, 0)
+                    .toFormatter().withResolverStyle(ResolverStyle.STRICT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 工作簿中的数据格式序号
+     */
+    private static class WorkbookFormat {
+
+        /**
+         * 工作簿
+         */
+        private final WeakReference<Workbook> workbook;
+        /**
+         * 数据格式序号
+         */
+        private final short index;
+
+        WorkbookFormat(Workbook workbook, short index) {
+            this.workbook = new WeakReference<>(workbook);
+            this.index = index;
+        }
+    }
+
+}
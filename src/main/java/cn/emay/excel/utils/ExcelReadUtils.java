@@ -7,6 +7,7 @@ import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 /**
@@ -21,6 +22,105 @@ public class ExcelReadUtils {
      */
     private static final HSSFDataFormatter HDF = new HSSFDataFormatter();
 
+    /**
+     * 当前线程绑定的公式计算器
+     */
+    private static final ThreadLocal<FormulaEvaluatorBinding> EVALUATOR = new ThreadLocal<>();
+
+    /**
+     * 为当前线程绑定Workbook的公式计算器<br/>
+     * 绑定期间该Workbook的公式单元格共用一个计算器，已计算的单元格结果被缓存，不再重复计算依赖的单元格<br/>
+     * 绑定期间Workbook内容不可修改；必须与{@link #unbindFormulaEvaluator()}成对调用，可嵌套
+     *
+     * @param workbook Workbook
+     */
+    public static void bindFormulaEvaluator(Workbook workbook) {
+        bindFormulaEvaluator(workbook, false);
+    }
+
+    /**
+     * 为当前线程绑定Workbook的公式计算器<br/>
+     * 绑定期间该Workbook的公式单元格共用一个计算器，已计算的单元格结果被缓存，不再重复计算依赖的单元格<br/>
+     * 绑定期间Workbook内容不可修改；必须与{@link #unbindFormulaEvaluator()}成对调用，可嵌套
+     *
+     * @param workbook     Workbook
+     * @param cachedResult 是否直接读取公式单元格中保存的上次计算结果(不计算公式)
+     */
+    public static void bindFormulaEvaluator(Workbook workbook, boolean cachedResult) {
+        if (workbook == null) {
+            throw new IllegalArgumentException("workbook is null");
+        }
+        FormulaEvaluatorBinding previous = EVALUATOR.get();
+        FormulaEvaluator evaluator = null;
+        if (previous != null && previous.workbook == workbook) {
+            evaluator = previous.evaluator;
+        }
+        if (evaluator == null && !cachedResult) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        EVALUATOR.set(new FormulaEvaluatorBinding(workbook, evaluator, cachedResult, previous));
+    }
+
+    /**
+     * 解除当前线程最近一次绑定的公式计算器
+     */
+    public static void unbindFormulaEvaluator() {
+        FormulaEvaluatorBinding binding = EVALUATOR.get();
+        if (binding == null) {
+            return;
+        }
+        if (binding.previous == null) {
+            EVALUATOR.remove();
+        } else {
+            EVALUATOR.set(binding.previous);
+        }
+    }
+
+    /**
+     * 获取单元格所在Workbook的公式计算器<br/>
+     * 当前线程绑定了该Workbook的计算器则复用，否则新建
+     *
+     * @param cell 单元格
+     * @return 公式计算器
+     */
+    public static FormulaEvaluator getFormulaEvaluator(Cell cell) {
+        Workbook workbook = cell.getSheet().getWorkbook();
+        FormulaEvaluatorBinding binding = EVALUATOR.get();
+        if (binding != null && binding.workbook == workbook) {
+            if (binding.evaluator == null) {
+                binding.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            }
+            return binding.evaluator;
+        }
+        return workbook.getCreationHelper().createFormulaEvaluator();
+    }
+
+    /**
+     * 读取公式单元格的值<br/>
+     * 当前线程绑定了只读缓存结果时直接返回单元格中保存的上次计算结果，否则计算公式
+     *
+     * @param cell 公式单元格
+     * @return 值[可能为空]
+     */
+    private static CellValue readFormulaValue(Cell cell) {
+        FormulaEvaluatorBinding binding = EVALUATOR.get();
+        if (binding == null || !binding.cachedResult || binding.workbook != cell.getSheet().getWorkbook()) {
+            return getFormulaEvaluator(cell).evaluate(cell);
+        }
+        switch (cell.getCachedFormulaResultTypeEnum()) {
+            case NUMERIC:
+                return new CellValue(cell.getNumericCellValue());
+            case STRING:
+                return new CellValue(cell.getRichStringCellValue().getString());
+            case BOOLEAN:
+                return CellValue.valueOf(cell.getBooleanCellValue());
+            case ERROR:
+                return CellValue.getError(cell.getErrorCellValue());
+            default:
+                return null;
+        }
+    }
+
     /**
      * 读取日期类型数据
      *
@@ -42,23 +142,13 @@ public class ExcelReadUtils {
                 date = ExcelUtils.parseDate(cell.getStringCellValue(), express);
                 break;
             case FORMULA:
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue value = evaluator.evaluate(cell);
+                CellValue value = readFormulaValue(cell);
                 if (value == null) {
                     break;
                 }
                 switch (value.getCellTypeEnum()) {
                     case NUMERIC:
-                        Workbook wb = cell.getSheet().getWorkbook();
-                        boolean date1904 = false;
-                        if (wb.getClass().getName().equals(SXSSFWorkbook.class.getName())) {
-                            date1904 = ((SXSSFWorkbook) wb).getXSSFWorkbook().isDate1904();
-                        } else if (wb.getClass().getName().equals(XSSFWorkbook.class.getName())) {
-                            date1904 = ((XSSFWorkbook) wb).isDate1904();
-                        } else if (wb.getClass().getName().equals(HSSFWorkbook.class.getName())) {
-                            date1904 = ((HSSFWorkbook) wb).getInternalWorkbook().isUsing1904DateWindowing();
-                        }
-                        date = DateUtil.getJavaDate(value.getNumberValue(), date1904);
+                        date = DateCodec.toDate(value.getNumberValue(), isDate1904(cell));
                         break;
                     case STRING:
                         date = ExcelUtils.parseDate(value.getStringValue(), express);
@@ -92,6 +182,74 @@ public class ExcelReadUtils {
         return date;
     }
 
+    /**
+     * 读取日期时间类型数据<br/>
+     * 数字单元格直接由Excel日期数字换算，不经过Date
+     *
+     * @param cell    单元格
+     * @param express 日期格式
+     * @return [可能为空]
+     */
+    public static LocalDateTime readLocalDateTime(Cell cell, String express) {
+        if (cell == null) {
+            return null;
+        }
+        switch (cell.getCellTypeEnum()) {
+            case NUMERIC:
+                return DateCodec.toLocalDateTime(cell.getNumericCellValue(), isDate1904(cell));
+            case STRING:
+                return readLocalDateTime(cell.getStringCellValue(), express);
+            case FORMULA:
+                CellValue value = readFormulaValue(cell);
+                if (value == null) {
+                    return null;
+                }
+                switch (value.getCellTypeEnum()) {
+                    case NUMERIC:
+                        return DateCodec.toLocalDateTime(value.getNumberValue(), isDate1904(cell));
+                    case STRING:
+                        return readLocalDateTime(value.getStringValue(), express);
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 读取日期时间类型数据
+     *
+     * @param value   数据
+     * @param express 日期格式
+     * @return [可能为空]
+     */
+    public static LocalDateTime readLocalDateTime(String value, String express) {
+        if (value == null) {
+            return null;
+        }
+        return DateCodec.of(express).parseLocalDateTime(value);
+    }
+
+    /**
+     * 单元格所在Workbook是否1904日期系统
+     *
+     * @param cell 单元格
+     * @return 是否1904日期系统
+     */
+    private static boolean isDate1904(Cell cell) {
+        Workbook wb = cell.getSheet().getWorkbook();
+        boolean date1904 = false;
+        if (wb.getClass().getName().equals(SXSSFWorkbook.class.getName())) {
+            date1904 = ((SXSSFWorkbook) wb).getXSSFWorkbook().isDate1904();
+        } else if (wb.getClass().getName().equals(XSSFWorkbook.class.getName())) {
+            date1904 = ((XSSFWorkbook) wb).isDate1904();
+        } else if (wb.getClass().getName().equals(HSSFWorkbook.class.getName())) {
+            date1904 = ((HSSFWorkbook) wb).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+        return date1904;
+    }
+
     /**
      * 读取Integer类型数据
      *
@@ -99,12 +257,18 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Integer readInteger(Cell cell) {
-        BigDecimal lo = readBigDecimal(cell, -1);
-        if (lo != null) {
-            return lo.intValue();
-        } else {
+        if (cell == null) {
             return null;
         }
+        switch (cell.getCellTypeEnum()) {
+            case NUMERIC:
+                return toInt(cell.getNumericCellValue());
+            case STRING:
+                return readInteger(cell.getStringCellValue());
+            default:
+                BigDecimal lo = readBigDecimal(cell, -1);
+                return lo == null ? null : lo.intValue();
+        }
     }
 
     /**
@@ -114,6 +278,9 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Integer readInteger(String value) {
+        if (isPlainInteger(value, 9)) {
+            return Integer.parseInt(value);
+        }
         BigDecimal lo = readBigDecimal(value, -1);
         if (lo != null) {
             return lo.intValue();
@@ -129,12 +296,18 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Long readLong(Cell cell) {
-        BigDecimal lo = readBigDecimal(cell, -1);
-        if (lo != null) {
-            return lo.longValue();
-        } else {
+        if (cell == null) {
             return null;
         }
+        switch (cell.getCellTypeEnum()) {
+            case NUMERIC:
+                return toLong(cell.getNumericCellValue());
+            case STRING:
+                return readLong(cell.getStringCellValue());
+            default:
+                BigDecimal lo = readBigDecimal(cell, -1);
+                return lo == null ? null : lo.longValue();
+        }
     }
 
     /**
@@ -144,6 +317,9 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Long readLong(String value) {
+        if (isPlainInteger(value, 18)) {
+            return Long.parseLong(value);
+        }
         BigDecimal lo = readBigDecimal(value, -1);
         if (lo != null) {
             return lo.longValue();
@@ -160,6 +336,23 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Double readDouble(Cell cell, int scale) {
+        if (cell == null) {
+            return null;
+        }
+        if (scale < 0) {
+            switch (cell.getCellTypeEnum()) {
+                case NUMERIC:
+                    double value = cell.getNumericCellValue();
+                    if (Double.isFinite(value)) {
+                        return value == 0 ? 0d : value;
+                    }
+                    break;
+                case STRING:
+                    return readDouble(cell.getStringCellValue(), scale);
+                default:
+                    break;
+            }
+        }
         BigDecimal lo = readBigDecimal(cell, scale);
         if (lo != null) {
             return lo.doubleValue();
@@ -176,6 +369,10 @@ public class ExcelReadUtils {
      * @return [可能为空]
      */
     public static Double readDouble(String value, int scale) {
+        if (scale < 0 && isPlainDecimal(value)) {
+            double d = Double.parseDouble(value);
+            return d == 0 ? 0d : d;
+        }
         BigDecimal lo = readBigDecimal(value, scale);
         if (lo != null) {
             return lo.doubleValue();
@@ -184,6 +381,102 @@ public class ExcelReadUtils {
         }
     }
 
+    /**
+     * 数字转为int，与BigDecimal.valueOf(value).intValue()一致(小数部分截断)，int范围内不创建BigDecimal
+     *
+     * @param value 数字
+     * @return int
+     */
+    public static int toInt(double value) {
+        if (value > -2147483649d && value < 2147483648d) {
+            return (int) value;
+        }
+        return BigDecimal.valueOf(value).intValue();
+    }
+
+    /**
+     * 数字转为long，与BigDecimal.valueOf(value).longValue()一致(小数部分截断)，long范围内不创建BigDecimal
+     *
+     * @param value 数字
+     * @return long
+     */
+    public static long toLong(double value) {
+        if (value > -9223372036854775808d && value < 9223372036854775808d) {
+            return (long) value;
+        }
+        return BigDecimal.valueOf(value).longValue();
+    }
+
+    /**
+     * 是否为不超过指定位数的十进制整数([+-]数字)，可以不经过BigDecimal直接解析
+     *
+     * @param value     数据
+     * @param maxDigits 最大位数
+     * @return 是否
+     */
+    private static boolean isPlainInteger(String value, int maxDigits) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int start = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        if (length == start || length - start > maxDigits) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否为BigDecimal可以解析的十进制小数([+-]数字[.数字][e[+-]数字])，可以直接用Double.parseDouble解析
+     *
+     * @param value 数据
+     * @return 是否
+     */
+    private static boolean isPlainDecimal(String value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int i = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        int digits = 0;
+        while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int expDigits = 0;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+                expDigits++;
+            }
+            // 指数超出int范围时BigDecimal解析失败
+            if (expDigits == 0 || expDigits > 9) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
     /**
      * 读取BigDecimal类型数据
      *
@@ -211,8 +504,7 @@ public class ExcelReadUtils {
                 d2 = BigDecimal.valueOf(cell.getBooleanCellValue() ? 1d : 0d);
                 break;
             case FORMULA:
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue value = evaluator.evaluate(cell);
+                CellValue value = readFormulaValue(cell);
                 if (value == null) {
                     break;
                 }
@@ -289,8 +581,7 @@ public class ExcelReadUtils {
                 str = String.valueOf(bol);
                 break;
             case FORMULA:
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue value = evaluator.evaluate(cell);
+                CellValue value = readFormulaValue(cell);
                 if (value == null) {
                     break;
                 }
@@ -379,8 +670,7 @@ public class ExcelReadUtils {
                 bol = cell.getBooleanCellValue();
                 break;
             case FORMULA:
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue value = evaluator.evaluate(cell);
+                CellValue value = readFormulaValue(cell);
                 if (value == null) {
                     break;
                 }
@@ -457,6 +747,8 @@ public class ExcelReadUtils {
             obj = readBigDecimal(value, ExcelUtils.parserExpressToInt(express));
         } else if (Date.class.isAssignableFrom(fieldClass)) {
             obj = readDate(value, express);
+        } else if (DateCodec.isTemporal(fieldClass)) {
+            obj = DateCodec.toTemporal(readLocalDateTime(value, express), fieldClass);
         } else if (Boolean.class.isAssignableFrom(fieldClass) || boolean.class.isAssignableFrom(fieldClass)) {
             obj = readBoolean(value);
         } else if (String.class.isAssignableFrom(fieldClass)) {
@@ -489,6 +781,8 @@ public class ExcelReadUtils {
             obj = readBigDecimal(cell, ExcelUtils.parserExpressToInt(express));
         } else if (Date.class.isAssignableFrom(fieldClass)) {
             obj = readDate(cell, express);
+        } else if (DateCodec.isTemporal(fieldClass)) {
+            obj = DateCodec.toTemporal(readLocalDateTime(cell, express), fieldClass);
         } else if (Boolean.class.isAssignableFrom(fieldClass) || boolean.class.isAssignableFrom(fieldClass)) {
             obj = readBoolean(cell);
         } else if (String.class.isAssignableFrom(fieldClass)) {
@@ -497,4 +791,72 @@ public class ExcelReadUtils {
         return (T) obj;
     }
 
+    /**
+     * 读取数字单元格的原始值<br/>
+     * 与XLS数字单元格的读取规则一致，不经过字符串格式化
+     *
+     * @param fieldClass 读取的数据类型(支持整数、浮点、BigDecimal、布尔、日期、java.time日期时间)
+     * @param value      数字
+     * @param date1904   是否1904日期系统(读取日期时使用)
+     * @param express    数据格式(读取Double 、 BigDecimal时 ， 是保留的小数点后数字个数)
+     * @return 数据[不支持的类型为空]
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T read(Class<T> fieldClass, double value, boolean date1904, String express) {
+        Object obj = null;
+        if (int.class.isAssignableFrom(fieldClass) || Integer.class.isAssignableFrom(fieldClass)) {
+            obj = toInt(value);
+        } else if (Double.class.isAssignableFrom(fieldClass) || double.class.isAssignableFrom(fieldClass)) {
+            int scale = ExcelUtils.parserExpressToInt(express);
+            obj = scale >= 0 ? BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_UP).doubleValue() : value;
+        } else if (Long.class.isAssignableFrom(fieldClass) || long.class.isAssignableFrom(fieldClass)) {
+            obj = toLong(value);
+        } else if (BigDecimal.class.isAssignableFrom(fieldClass)) {
+            int scale = ExcelUtils.parserExpressToInt(express);
+            BigDecimal d2 = BigDecimal.valueOf(value);
+            obj = scale >= 0 ? d2.setScale(scale, BigDecimal.ROUND_HALF_UP) : d2;
+        } else if (Date.class.isAssignableFrom(fieldClass)) {
+            obj = DateCodec.toDate(value, date1904);
+        } else if (DateCodec.isTemporal(fieldClass)) {
+            obj = DateCodec.toTemporal(DateCodec.toLocalDateTime(value, date1904), fieldClass);
+        } else if (Boolean.class.isAssignableFrom(fieldClass) || boolean.class.isAssignableFrom(fieldClass)) {
+            if (value == 1) {
+                obj = true;
+            } else if (value == 0) {
+                obj = false;
+            }
+        }
+        return (T) obj;
+    }
+
+    /**
+     * Workbook与公式计算器的绑定
+     *
+     * @author Frank
+     */
+    private static class FormulaEvaluatorBinding {
+
+        private final Workbook workbook;
+        /**
+         * 公式计算器(只读缓存结果时首次使用才创建)
+         */
+        private FormulaEvaluator evaluator;
+        /**
+         * 是否只读缓存结果
+         */
+        private final boolean cachedResult;
+        /**
+         * 上一层绑定(嵌套绑定时恢复)
+         */
+        private final FormulaEvaluatorBinding previous;
+
+        FormulaEvaluatorBinding(Workbook workbook, FormulaEvaluator evaluator, boolean cachedResult, FormulaEvaluatorBinding previous) {
+            this.workbook = workbook;
+            this.evaluator = evaluator;
+            this.cachedResult = cachedResult;
+            this.previous = previous;
+        }
+
+    }
+
 }
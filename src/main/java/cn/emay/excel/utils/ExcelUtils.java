@@ -3,7 +3,6 @@ package cn.emay.excel.utils;
 import cn.emay.excel.common.ExcelVersion;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -37,13 +36,7 @@ public class ExcelUtils {
      * @return 日期
      */
     public static Date parseDate(String dateStr, String format) {
-        Date date = null;
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat(format);
-            date = sdf.parse(dateStr);
-        } catch (Exception ignored) {
-        }
-        return date;
+        return DateCodec.of(format).parse(dateStr);
     }
 
     /**
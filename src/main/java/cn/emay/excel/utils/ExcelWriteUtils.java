@@ -1,11 +1,12 @@
 package cn.emay.excel.utils;
 
-import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 
 import java.math.BigDecimal;
+import java.time.temporal.Temporal;
 import java.util.Date;
 
 /**
@@ -15,6 +16,11 @@ import java.util.Date;
  */
 public class ExcelWriteUtils {
 
+    /**
+     * 整数数据格式("0"，内置格式，XLS、XLSX一致)
+     */
+    private static final short INTEGER_FORMAT = (short) BuiltinFormats.getBuiltinFormat("0");
+
     /**
      * 写入日期
      *
@@ -30,13 +36,32 @@ public class ExcelWriteUtils {
         if (date == null) {
             return;
         }
-        double datEnum = HSSFDateUtil.getExcelDate(date);
+        double datEnum = DateCodec.toExcel(date);
         cell.setCellValue(datEnum);
         if (format != null) {
-            CellStyle style = cell.getCellStyle();
-            short df = cell.getSheet().getWorkbook().createDataFormat().getFormat(format);
-            style.setDataFormat(df);
-            cell.setCellStyle(style);
+            setDataFormat(cell, DateCodec.of(format).getDataFormat(cell.getSheet().getWorkbook()));
+        }
+    }
+
+    /**
+     * 写入java.time日期时间<br/>
+     * 直接换算为Excel日期数字，不经过Date；Instant、OffsetDateTime按POI的用户时区写入本地时间
+     *
+     * @param cell   单元格
+     * @param value  日期时间(LocalDate、LocalDateTime、LocalTime、Instant、OffsetDateTime)
+     * @param format 日期格式
+     */
+    public static void writeTemporal(Cell cell, Temporal value, String format) {
+        if (cell == null) {
+            return;
+        }
+        cell.setCellType(CellType.NUMERIC);
+        if (value == null) {
+            return;
+        }
+        cell.setCellValue(DateCodec.toExcel(value));
+        if (format != null) {
+            setDataFormat(cell, DateCodec.of(format).getDataFormat(cell.getSheet().getWorkbook()));
         }
     }
 
@@ -72,6 +97,15 @@ public class ExcelWriteUtils {
      * @param scale  保留小数点后位数。(<0则不改变原有值)
      */
     public static void writeDouble(Cell cell, double number, int scale) {
+        if (scale < 0 && Double.isFinite(number)) {
+            if (cell == null) {
+                return;
+            }
+            cell.setCellType(CellType.NUMERIC);
+            // 与new BigDecimal(number).doubleValue()一致：-0.0写为0
+            cell.setCellValue(number == 0 ? 0d : number);
+            return;
+        }
         writeBigDecimal(cell, new BigDecimal(number), scale);
     }
 
@@ -119,11 +153,7 @@ public class ExcelWriteUtils {
         }
         cell.setCellType(CellType.NUMERIC);
         cell.setCellValue(number);
-        CellStyle style = cell.getCellStyle();
-        // style.cloneStyleFrom(cell.getCellStyle());
-        short df = cell.getSheet().getWorkbook().createDataFormat().getFormat("0");
-        style.setDataFormat(df);
-        cell.setCellStyle(style);
+        setDataFormat(cell, INTEGER_FORMAT);
     }
 
     /**
@@ -138,10 +168,7 @@ public class ExcelWriteUtils {
         }
         cell.setCellType(CellType.NUMERIC);
         cell.setCellValue(number);
-        CellStyle style = cell.getCellStyle();
-        short df = cell.getSheet().getWorkbook().createDataFormat().getFormat("0");
-        style.setDataFormat(df);
-        cell.setCellStyle(style);
+        setDataFormat(cell, INTEGER_FORMAT);
     }
 
     /**
@@ -161,6 +188,20 @@ public class ExcelWriteUtils {
         cell.setCellValue(value);
     }
 
+    /**
+     * 设置单元格样式的数据格式(已是该格式时不修改样式)
+     *
+     * @param cell   单元格
+     * @param format 数据格式
+     */
+    private static void setDataFormat(Cell cell, short format) {
+        CellStyle style = cell.getCellStyle();
+        if (style.getDataFormat() != format) {
+            style.setDataFormat(format);
+            cell.setCellStyle(style);
+        }
+    }
+
     /**
      * 写入数据
      *
@@ -188,6 +229,8 @@ public class ExcelWriteUtils {
             ExcelWriteUtils.writeBigDecimal(cell, (BigDecimal) data, ExcelUtils.parserExpressToInt(express));
         } else if (Date.class.isAssignableFrom(data.getClass())) {
             ExcelWriteUtils.writeDate(cell, (Date) data, express);
+        } else if (DateCodec.isTemporal(data.getClass())) {
+            ExcelWriteUtils.writeTemporal(cell, (Temporal) data, express);
         } else if (boolean.class.isAssignableFrom(data.getClass())) {
             ExcelWriteUtils.writeBoolean(cell, (boolean) data);
         } else if (Boolean.class.isAssignableFrom(data.getClass())) {
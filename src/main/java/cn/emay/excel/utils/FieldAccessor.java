@@ -0,0 +1,269 @@
+package cn.emay.excel.utils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 字段访问器<br/>
+ * 每个字段按类型只生成一次专用访问器(按类缓存)：<br/>
+ * 基本类型字段的setInt/setLong/setDouble/setBoolean直接写入，不装箱；包装类型字段装箱后写入<br/>
+ * 读写基于JDK字段访问器(Unsafe实现)，实测快于保存在实例字段中的方法句柄(无法常量折叠)<br/>
+ * 注解处理器生成的映射器({@link cn.emay.excel.common.schema.mapper.ExcelMapper})继承此类，直接调用字段或getter/setter
+ *
+ * @author Frank
+ */
+public abstract class FieldAccessor {
+
+    /**
+     * 按声明类缓存的字段访问器
+     */
+    private static final ClassValue<ConcurrentMap<String, FieldAccessor>> ACCESSORS = new ClassValue<ConcurrentMap<String, FieldAccessor>>() {
+        @Override
+        protected ConcurrentMap<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * 字段名
+     */
+    private final String name;
+    /**
+     * 字段类型
+     */
+    private final Class<?> type;
+
+    /**
+     * @param name 字段名
+     * @param type 字段类型
+     */
+    protected FieldAccessor(String name, Class<?> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * 获取字段访问器
+     *
+     * @param field 字段
+     * @return 字段访问器
+     */
+    public static FieldAccessor of(Field field) {
+        if (field == null) {
+            throw new IllegalArgumentException("field is null");
+        }
+        ConcurrentMap<String, FieldAccessor> accessors = ACCESSORS.get(field.getDeclaringClass());
+        FieldAccessor accessor = accessors.get(field.getName());
+        if (accessor == null) {
+            accessor = create(field);
+            FieldAccessor exists = accessors.putIfAbsent(field.getName(), accessor);
+            if (exists != null) {
+                accessor = exists;
+            }
+        }
+        return accessor;
+    }
+
+    /**
+     * 获取字段访问器(从数据类向父类查找字段)
+     *
+     * @param dataClass 数据Class
+     * @param fieldName 字段名
+     * @return 字段访问器
+     */
+    public static FieldAccessor of(Class<?> dataClass, String fieldName) {
+        for (Class<?> clazz = dataClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            try {
+                return of(clazz.getDeclaredField(fieldName));
+            } catch (NoSuchFieldException ignored) {
+            }
+        }
+        throw new IllegalArgumentException((dataClass == null ? null : dataClass.getName()) + " has no field[" + fieldName + "]");
+    }
+
+    private static FieldAccessor create(Field field) {
+        field.setAccessible(true);
+        Class<?> type = field.getType();
+        if (int.class.equals(type)) {
+            return new IntAccessor(field);
+        } else if (long.class.equals(type)) {
+            return new LongAccessor(field);
+        } else if (double.class.equals(type)) {
+            return new DoubleAccessor(field);
+        } else if (boolean.class.equals(type)) {
+            return new BooleanAccessor(field);
+        }
+        return new ReflectAccessor(field);
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return 字段名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取字段类型
+     *
+     * @return 字段类型
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 读取字段
+     *
+     * @param data 数据
+     * @return 值
+     */
+    public abstract Object get(Object data);
+
+    /**
+     * 写入字段
+     *
+     * @param data  数据
+     * @param value 值
+     */
+    public abstract void set(Object data, Object value);
+
+    /**
+     * 写入int(或Integer)字段
+     *
+     * @param data  数据
+     * @param value 值
+     */
+    public void setInt(Object data, int value) {
+        set(data, value);
+    }
+
+    /**
+     * 写入long(或Long)字段
+     *
+     * @param data  数据
+     * @param value 值
+     */
+    public void setLong(Object data, long value) {
+        set(data, value);
+    }
+
+    /**
+     * 写入double(或Double)字段
+     *
+     * @param data  数据
+     * @param value 值
+     */
+    public void setDouble(Object data, double value) {
+        set(data, value);
+    }
+
+    /**
+     * 写入boolean(或Boolean)字段
+     *
+     * @param data  数据
+     * @param value 值
+     */
+    public void setBoolean(Object data, boolean value) {
+        set(data, value);
+    }
+
+    private static class ReflectAccessor extends FieldAccessor {
+
+        /**
+         * 字段
+         */
+        final Field field;
+
+        ReflectAccessor(Field field) {
+            super(field.getName(), field.getType());
+            this.field = field;
+        }
+
+        @Override
+        public Object get(Object data) {
+            try {
+                return field.get(data);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        @Override
+        public void set(Object data, Object value) {
+            try {
+                field.set(data, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    private static class IntAccessor extends ReflectAccessor {
+
+        IntAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void setInt(Object data, int value) {
+            try {
+                field.setInt(data, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    private static class LongAccessor extends ReflectAccessor {
+
+        LongAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void setLong(Object data, long value) {
+            try {
+                field.setLong(data, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    private static class DoubleAccessor extends ReflectAccessor {
+
+        DoubleAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void setDouble(Object data, double value) {
+            try {
+                field.setDouble(data, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    private static class BooleanAccessor extends ReflectAccessor {
+
+        BooleanAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void setBoolean(Object data, boolean value) {
+            try {
+                field.setBoolean(data, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+}
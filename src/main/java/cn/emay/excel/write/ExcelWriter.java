@@ -2,7 +2,9 @@ package cn.emay.excel.write;
 
 import cn.emay.excel.common.ExcelVersion;
 import cn.emay.excel.common.schema.base.SheetSchema;
+import cn.emay.excel.common.schema.base.SheetSchemaCache;
 import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.write.core.XlsxStreamWriter;
 import cn.emay.excel.write.data.SchemaSheetDataGetter;
 import cn.emay.excel.write.data.SheetDataGetter;
 import cn.emay.excel.write.data.WriteData;
@@ -18,6 +20,7 @@ import java.io.*;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
 
 /**
  * Excel写
@@ -31,6 +34,11 @@ public class ExcelWriter {
      */
     public final static int DEFAULT_CACHE_NUM = 1000;
 
+    /**
+     * 流式导出默认的刷新行数
+     */
+    public final static int DEFAULT_FLUSH_ROWS = 1000;
+
     /**
      * 把Excel写入文件【根据后缀（.xls,.xlsx）自动适配】<br/>
      * dataClass实现了@ExcelSheet注解,其字段实现了@ExcelColumn注解
@@ -76,7 +84,7 @@ public class ExcelWriter {
             List<?> list = datas[i];
             Class<?> dataClass = list.get(0).getClass();
             SheetDataGetter<?> dataWriter = new ListSchemaSheetDataGetter(list, dataClass);
-            SheetSchema sheetSchema = new SheetSchema(dataClass);
+            SheetSchema sheetSchema = SheetSchemaCache.get(dataClass);
             handlers[i] = new SchemaSheetWriter(sheetSchema, dataWriter);
             cacheNumber = Math.max(sheetSchema.getSheetWriteSchemaParams().getCacheNumber(), cacheNumber);
         }
@@ -130,7 +138,7 @@ public class ExcelWriter {
         int cacheNumber = DEFAULT_CACHE_NUM;
         for (int i = 0; i < datas.length; i++) {
             SheetDataGetter<?> dataWriter = datas[i];
-            SheetSchema sheetSchema = new SheetSchema(datas[i].getDataClass());
+            SheetSchema sheetSchema = SheetSchemaCache.get(datas[i].getDataClass());
             handlers[i] = new SchemaSheetWriter(sheetSchema, dataWriter);
             cacheNumber = Math.max(sheetSchema.getSheetWriteSchemaParams().getCacheNumber(), cacheNumber);
         }
@@ -336,6 +344,119 @@ public class ExcelWriter {
         }
     }
 
+    /**
+     * 以XLSX直写方式把Excel写入输出流(不关闭输出流)<br/>
+     * 不使用SXSSF临时文件，行数据直接序列化进压缩包，见{@link XlsxStreamWriter}<br/>
+     * 单元格不支持批注、超链接，所在行只能设置行高与隐藏(调用时抛出UnsupportedOperationException)
+     *
+     * @param os       输出流
+     * @param handlers Execl写入处理器集合[按照顺序处理Sheet,SheetWriteHandler实例不要重用]
+     */
+    public static void writeXlsxDirect(OutputStream os, SheetWriter... handlers) {
+        new XlsxStreamWriter().write(os, handlers);
+    }
+
+    /**
+     * 以XLSX流式导出方式把Excel写入输出流(不关闭输出流)<br/>
+     * 每写入{@link #DEFAULT_FLUSH_ROWS}行刷新一次输出流，生成第一段数据后客户端即可收到，内存占用与行数无关，适合HTTP下载<br/>
+     * dataClass实现了@ExcelSheet注解,其字段实现了@ExcelColumn注解
+     *
+     * @param os    输出流
+     * @param datas 写入的数据集,按照顺序写入
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void writeXlsxStream(OutputStream os, List<?>... datas) {
+        if (datas == null) {
+            throw new IllegalArgumentException("datas is null");
+        }
+        SheetDataGetter<?>[] getters = new SheetDataGetter[datas.length];
+        for (int i = 0; i < datas.length; i++) {
+            List<?> list = datas[i];
+            getters[i] = new ListSchemaSheetDataGetter(list, list.get(0).getClass());
+        }
+        writeXlsxStream(os, getters);
+    }
+
+    /**
+     * 以XLSX流式导出方式把Excel写入输出流(不关闭输出流)<br/>
+     * 每写入{@link #DEFAULT_FLUSH_ROWS}行刷新一次输出流，生成第一段数据后客户端即可收到，内存占用与行数无关，适合HTTP下载<br/>
+     * dataClass实现了@ExcelSheet注解,其字段实现了@ExcelColumn注解
+     *
+     * @param os    输出流
+     * @param datas 写入的数据集,按照顺序写入
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void writeXlsxStream(OutputStream os, SheetDataGetter<?>... datas) {
+        if (datas == null) {
+            throw new IllegalArgumentException("datas is null");
+        }
+        if (datas.length == 0) {
+            throw new IllegalArgumentException("datas is empty");
+        }
+        SheetWriter[] handlers = new SheetWriter[datas.length];
+        for (int i = 0; i < datas.length; i++) {
+            handlers[i] = new SchemaSheetWriter(SheetSchemaCache.get(datas[i].getDataClass()), datas[i]);
+        }
+        writeXlsxStream(os, DEFAULT_FLUSH_ROWS, handlers);
+    }
+
+    /**
+     * 以XLSX流式导出方式把Excel写入输出流(不关闭输出流)<br/>
+     * 每写入flushRows行刷新一次输出流，见{@link XlsxStreamWriter#setFlushRows(int)}<br/>
+     * 单元格不支持批注、超链接，所在行只能设置行高与隐藏(调用时抛出UnsupportedOperationException)
+     *
+     * @param os        输出流
+     * @param flushRows 每写入多少行刷新一次输出流
+     * @param handlers  Execl写入处理器集合[按照顺序处理Sheet,SheetWriteHandler实例不要重用]
+     */
+    public static void writeXlsxStream(OutputStream os, int flushRows, SheetWriter... handlers) {
+        XlsxStreamWriter writer = new XlsxStreamWriter();
+        writer.setFlushRows(flushRows);
+        writer.write(os, handlers);
+    }
+
+    /**
+     * 以XLSX直写方式并行生成各sheet，按顺序写入输出流(不关闭输出流)<br/>
+     * 各sheet在执行器上同时生成，输出与{@link #writeXlsxDirect(OutputStream, SheetWriter...)}相同，适合多个sheet各自查询数据的导出<br/>
+     * dataClass实现了@ExcelSheet注解,其字段实现了@ExcelColumn注解
+     *
+     * @param os       输出流
+     * @param executor 执行器[由调用方管理，不关闭]
+     * @param datas    写入的数据集,按照顺序写入
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void writeXlsxParallel(OutputStream os, Executor executor, SheetDataGetter<?>... datas) {
+        if (datas == null) {
+            throw new IllegalArgumentException("datas is null");
+        }
+        if (datas.length == 0) {
+            throw new IllegalArgumentException("datas is empty");
+        }
+        SheetWriter[] handlers = new SheetWriter[datas.length];
+        for (int i = 0; i < datas.length; i++) {
+            handlers[i] = new SchemaSheetWriter(SheetSchemaCache.get(datas[i].getDataClass()), datas[i]);
+        }
+        writeXlsxParallel(os, executor, handlers);
+    }
+
+    /**
+     * 以XLSX直写方式并行生成各sheet，按顺序写入输出流(不关闭输出流)<br/>
+     * 处理器只能在begin和第一行中创建样式，见{@link XlsxStreamWriter#setExecutor(Executor)}<br/>
+     * 单元格不支持批注、超链接，所在行只能设置行高与隐藏(调用时抛出UnsupportedOperationException)
+     *
+     * @param os       输出流
+     * @param executor 执行器[由调用方管理，不关闭]
+     * @param handlers Execl写入处理器集合[按照顺序处理Sheet,SheetWriteHandler实例不要重用]
+     */
+    public static void writeXlsxParallel(OutputStream os, Executor executor, SheetWriter... handlers) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+        XlsxStreamWriter writer = new XlsxStreamWriter();
+        writer.setExecutor(executor);
+        writer.write(os, handlers);
+    }
+
     /**
      * 往Workbook写入数据
      *
@@ -372,7 +493,7 @@ public class ExcelWriter {
             } else {
                 sheet = workbook.createSheet();
             }
-            if (SXSSFSheet.class.isAssignableFrom(sheet.getClass()) && handler.isAutoWidth()) {
+            if (SXSSFSheet.class.isAssignableFrom(sheet.getClass()) && handler.isAutoWidth() && !(handler instanceof SchemaSheetWriter)) {
                 ((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
             }
             write(index, sheet, handler);
@@ -408,13 +529,16 @@ public class ExcelWriter {
         if (handler == null) {
             throw new IllegalArgumentException("handler is null");
         }
-        // excel仅支持64000个样式，所以仅创建列数*2个样式，标题行单独使用，内容行共用
+        // excel仅支持64000个样式，所以仅创建列数*2个样式，标题行单独使用，内容行共用；定义方式写入由样式池自行创建样式
         handler.begin(sheetIndex);
+        boolean ownStyles = handler instanceof SchemaSheetWriter;
         CellStyle[] titleStyles = new CellStyle[handler.getMaxColumnIndex() + 1];
         CellStyle[] contentStyles = new CellStyle[handler.getMaxColumnIndex() + 1];
         for (int columnIndex = 0; columnIndex <= handler.getMaxColumnIndex(); columnIndex++) {
-            titleStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
-            contentStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
+            if (!ownStyles) {
+                titleStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
+                contentStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
+            }
         }
         int rowIndex = 0;
         while (handler.hasRow(rowIndex)) {
@@ -422,10 +546,8 @@ public class ExcelWriter {
             handler.beginRow(rowIndex);
             for (int columnIndex = 0; columnIndex <= handler.getMaxColumnIndex(); columnIndex++) {
                 Cell cell = row.createCell(columnIndex);
-                if (rowIndex == 0) {
-                    cell.setCellStyle(titleStyles[columnIndex]);
-                } else {
-                    cell.setCellStyle(contentStyles[columnIndex]);
+                if (!ownStyles) {
+                    cell.setCellStyle(rowIndex == 0 ? titleStyles[columnIndex] : contentStyles[columnIndex]);
                 }
                 handler.writeCell(cell, rowIndex, columnIndex);
             }
@@ -0,0 +1,425 @@
+package cn.emay.excel.write.core;
+
+import cn.emay.excel.utils.DateCodec;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * XLSX直写单元格<br/>
+ * 每个sheet只有一个实例，写入每个单元格前重置坐标、样式与值，写入后立即序列化；<br/>
+ * 类型转换规则与SXSSF单元格一致；所在行只能设置行高与隐藏(见{@link XlsxStreamRow})，不支持批注、超链接、数组公式
+ *
+ * @author Frank
+ */
+class XlsxStreamCell implements Cell {
+
+    /**
+     * 所在表
+     */
+    private final Sheet sheet;
+    /**
+     * 所在行
+     */
+    private final XlsxStreamRow row;
+    /**
+     * 默认样式
+     */
+    private final CellStyle defaultStyle;
+    /**
+     * 行号
+     */
+    private int rowIndex;
+    /**
+     * 列号
+     */
+    private int columnIndex;
+    /**
+     * 样式
+     */
+    private CellStyle style;
+    /**
+     * 类型
+     */
+    private CellType type = CellType.BLANK;
+    /**
+     * 数字值(公式为缓存结果)
+     */
+    private double number;
+    /**
+     * 字符串值
+     */
+    private String string;
+    /**
+     * 布尔值
+     */
+    private boolean bool;
+    /**
+     * 错误值
+     */
+    private byte error;
+    /**
+     * 公式
+     */
+    private String formula;
+
+    /**
+     * @param row 所在行
+     */
+    XlsxStreamCell(XlsxStreamRow row) {
+        this.sheet = row.getSheet();
+        this.row = row;
+        this.defaultStyle = sheet.getWorkbook().getCellStyleAt(0);
+    }
+
+    /**
+     * 重置为空白单元格
+     *
+     * @param rowIndex    行号
+     * @param columnIndex 列号
+     * @param style       样式
+     */
+    void reset(int rowIndex, int columnIndex, CellStyle style) {
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+        this.style = style == null ? defaultStyle : style;
+        setBlank();
+    }
+
+    private void setBlank() {
+        type = CellType.BLANK;
+        number = 0;
+        string = null;
+        bool = false;
+        error = 0;
+        formula = null;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public Sheet getSheet() {
+        return sheet;
+    }
+
+    @Override
+    public Row getRow() {
+        return row;
+    }
+
+    @Override
+    @Deprecated
+    public void setCellType(int cellType) {
+        setCellType(CellType.forInt(cellType));
+    }
+
+    @Override
+    public void setCellType(CellType cellType) {
+        if (cellType == null || cellType == CellType._NONE) {
+            throw new IllegalArgumentException("Illegal type " + cellType);
+        }
+        if (type == cellType) {
+            return;
+        }
+        switch (cellType) {
+            case STRING:
+                String str = convertToString();
+                setBlank();
+                string = str;
+                break;
+            case BOOLEAN:
+                boolean b = convertToBoolean();
+                setBlank();
+                bool = b;
+                break;
+            case FORMULA:
+                setBlank();
+                number = Double.NaN;
+                break;
+            default:
+                setBlank();
+                break;
+        }
+        type = cellType;
+    }
+
+    @Override
+    @Deprecated
+    public int getCellType() {
+        return type.getCode();
+    }
+
+    @Override
+    public CellType getCellTypeEnum() {
+        return type;
+    }
+
+    @Override
+    @Deprecated
+    public int getCachedFormulaResultType() {
+        return getCachedFormulaResultTypeEnum().getCode();
+    }
+
+    @Override
+    public CellType getCachedFormulaResultTypeEnum() {
+        if (type != CellType.FORMULA) {
+            throw new IllegalStateException("Only formula cells have cached results");
+        }
+        return CellType.NUMERIC;
+    }
+
+    @Override
+    public void setCellValue(double value) {
+        if (Double.isInfinite(value)) {
+            setCellErrorValue(FormulaError.DIV0.getCode());
+        } else if (Double.isNaN(value)) {
+            setCellErrorValue(FormulaError.NUM.getCode());
+        } else if (type == CellType.FORMULA) {
+            number = value;
+        } else {
+            setBlank();
+            type = CellType.NUMERIC;
+            number = value;
+        }
+    }
+
+    @Override
+    public void setCellValue(Date value) {
+        if (value == null) {
+            setBlank();
+            return;
+        }
+        setCellValue(DateCodec.toExcel(value));
+    }
+
+    @Override
+    public void setCellValue(Calendar value) {
+        if (value == null) {
+            setBlank();
+            return;
+        }
+        setCellValue(DateUtil.getExcelDate(value, false));
+    }
+
+    @Override
+    public void setCellValue(RichTextString value) {
+        setCellValue(value == null ? null : value.getString());
+    }
+
+    @Override
+    public void setCellValue(String value) {
+        if (value == null) {
+            setBlank();
+            return;
+        }
+        if (value.length() > SpreadsheetVersion.EXCEL2007.getMaxTextLength()) {
+            throw new IllegalArgumentException("The maximum length of cell contents (text) is 32,767 characters");
+        }
+        setBlank();
+        type = CellType.STRING;
+        string = value;
+    }
+
+    @Override
+    public void setCellFormula(String formula) {
+        if (formula == null) {
+            setBlank();
+            return;
+        }
+        setBlank();
+        type = CellType.FORMULA;
+        number = Double.NaN;
+        this.formula = formula;
+    }
+
+    @Override
+    public String getCellFormula() {
+        if (type != CellType.FORMULA) {
+            throw new IllegalStateException("Cannot get a formula value from a " + type + " cell");
+        }
+        return formula;
+    }
+
+    @Override
+    public double getNumericCellValue() {
+        switch (type) {
+            case BLANK:
+                return 0;
+            case NUMERIC:
+            case FORMULA:
+                return number;
+            default:
+                throw new IllegalStateException("Cannot get a NUMERIC value from a " + type + " cell");
+        }
+    }
+
+    @Override
+    public Date getDateCellValue() {
+        if (type == CellType.BLANK) {
+            return null;
+        }
+        return DateCodec.toDate(getNumericCellValue(), false);
+    }
+
+    @Override
+    public RichTextString getRichStringCellValue() {
+        return new XSSFRichTextString(getStringCellValue());
+    }
+
+    @Override
+    public String getStringCellValue() {
+        switch (type) {
+            case BLANK:
+                return "";
+            case STRING:
+                return string;
+            default:
+                throw new IllegalStateException("Cannot get a STRING value from a " + type + " cell");
+        }
+    }
+
+    @Override
+    public void setCellValue(boolean value) {
+        setBlank();
+        type = CellType.BOOLEAN;
+        bool = value;
+    }
+
+    @Override
+    public void setCellErrorValue(byte value) {
+        setBlank();
+        type = CellType.ERROR;
+        error = value;
+    }
+
+    @Override
+    public boolean getBooleanCellValue() {
+        switch (type) {
+            case BLANK:
+                return false;
+            case BOOLEAN:
+                return bool;
+            default:
+                throw new IllegalStateException("Cannot get a BOOLEAN value from a " + type + " cell");
+        }
+    }
+
+    @Override
+    public byte getErrorCellValue() {
+        switch (type) {
+            case BLANK:
+                return 0;
+            case ERROR:
+                return error;
+            default:
+                throw new IllegalStateException("Cannot get a ERROR value from a " + type + " cell");
+        }
+    }
+
+    @Override
+    public void setCellStyle(CellStyle style) {
+        this.style = style == null ? defaultStyle : style;
+    }
+
+    @Override
+    public CellStyle getCellStyle() {
+        return style;
+    }
+
+    @Override
+    public void setAsActiveCell() {
+        throw new UnsupportedOperationException("active cell is not supported when writing xlsx directly");
+    }
+
+    @Override
+    public CellAddress getAddress() {
+        return new CellAddress(rowIndex, columnIndex);
+    }
+
+    @Override
+    public void setCellComment(Comment comment) {
+        throw new UnsupportedOperationException("comment is not supported when writing xlsx directly");
+    }
+
+    @Override
+    public Comment getCellComment() {
+        return null;
+    }
+
+    @Override
+    public void removeCellComment() {
+    }
+
+    @Override
+    public Hyperlink getHyperlink() {
+        return null;
+    }
+
+    @Override
+    public void setHyperlink(Hyperlink link) {
+        throw new UnsupportedOperationException("hyperlink is not supported when writing xlsx directly");
+    }
+
+    @Override
+    public void removeHyperlink() {
+    }
+
+    @Override
+    public CellRangeAddress getArrayFormulaRange() {
+        throw new IllegalStateException("Cell " + getAddress() + " is not part of an array formula.");
+    }
+
+    @Override
+    public boolean isPartOfArrayFormulaGroup() {
+        return false;
+    }
+
+    /**
+     * 字符串值(类型为STRING时有效)
+     *
+     * @return 字符串
+     */
+    String getString() {
+        return string;
+    }
+
+    private String convertToString() {
+        switch (type) {
+            case NUMERIC:
+                return String.valueOf(number);
+            case BOOLEAN:
+                return bool ? "TRUE" : "FALSE";
+            case ERROR:
+                return FormulaError.forInt(error).getString();
+            case FORMULA:
+                return formula;
+            default:
+                return "";
+        }
+    }
+
+    private boolean convertToBoolean() {
+        switch (type) {
+            case NUMERIC:
+                return number != 0;
+            case STRING:
+                return Boolean.parseBoolean(string);
+            default:
+                return false;
+        }
+    }
+
+}
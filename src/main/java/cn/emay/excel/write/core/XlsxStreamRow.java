@@ -0,0 +1,185 @@
+package cn.emay.excel.write.core;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Iterator;
+
+/**
+ * XLSX直写行<br/>
+ * 每个sheet只有一个实例，写入每行前重置；只记录行高与隐藏，写完该行所有单元格后输出到行标签上；<br/>
+ * 单元格已逐个序列化，不支持创建、获取、删除单元格，也不支持行样式
+ *
+ * @author Frank
+ */
+class XlsxStreamRow implements Row {
+
+    /**
+     * 所在表
+     */
+    private final Sheet sheet;
+    /**
+     * 行号
+     */
+    private int rowIndex;
+    /**
+     * 行高[单位1/20点，-1为默认行高]
+     */
+    private short height = -1;
+    /**
+     * 是否隐藏
+     */
+    private boolean zeroHeight;
+
+    /**
+     * @param sheet 所在表
+     */
+    XlsxStreamRow(Sheet sheet) {
+        this.sheet = sheet;
+    }
+
+    /**
+     * 重置为默认行高
+     *
+     * @param rowIndex 行号
+     */
+    void reset(int rowIndex) {
+        this.rowIndex = rowIndex;
+        this.height = -1;
+        this.zeroHeight = false;
+    }
+
+    /**
+     * 是否设置了行高
+     *
+     * @return 是否设置了行高
+     */
+    boolean hasCustomHeight() {
+        return height != -1;
+    }
+
+    @Override
+    public Cell createCell(int column) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    @Deprecated
+    public Cell createCell(int column, int type) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public Cell createCell(int column, CellType type) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public void removeCell(Cell cell) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public void setRowNum(int rowNum) {
+        throw new UnsupportedOperationException("row number is fixed when writing xlsx directly");
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowIndex;
+    }
+
+    @Override
+    public Cell getCell(int cellnum) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public Cell getCell(int cellnum, MissingCellPolicy policy) {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public short getFirstCellNum() {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public short getLastCellNum() {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public int getPhysicalNumberOfCells() {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public void setHeight(short height) {
+        this.height = height;
+    }
+
+    @Override
+    public void setZeroHeight(boolean zHeight) {
+        this.zeroHeight = zHeight;
+    }
+
+    @Override
+    public boolean getZeroHeight() {
+        return zeroHeight;
+    }
+
+    @Override
+    public void setHeightInPoints(float height) {
+        this.height = height == -1 ? -1 : (short) (height * 20);
+    }
+
+    @Override
+    public short getHeight() {
+        return height == -1 ? (short) (sheet.getDefaultRowHeightInPoints() * 20) : height;
+    }
+
+    @Override
+    public float getHeightInPoints() {
+        return height == -1 ? sheet.getDefaultRowHeightInPoints() : height / 20f;
+    }
+
+    @Override
+    public boolean isFormatted() {
+        return false;
+    }
+
+    @Override
+    public CellStyle getRowStyle() {
+        return null;
+    }
+
+    @Override
+    public void setRowStyle(CellStyle style) {
+        throw new UnsupportedOperationException("row style is not supported when writing xlsx directly");
+    }
+
+    @Override
+    public Iterator<Cell> cellIterator() {
+        throw new UnsupportedOperationException("cell is not available from row when writing xlsx directly");
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return cellIterator();
+    }
+
+    @Override
+    public Sheet getSheet() {
+        return sheet;
+    }
+
+    @Override
+    public int getOutlineLevel() {
+        return 0;
+    }
+
+}
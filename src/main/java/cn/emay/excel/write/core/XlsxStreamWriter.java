@@ -0,0 +1,768 @@
+package cn.emay.excel.write.core;
+
+import cn.emay.excel.write.writer.SheetWriter;
+import cn.emay.excel.write.writer.impl.SchemaSheetWriter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX直写器<br/>
+ * 不经过SXSSF临时文件，按{@link SheetWriter}逐行生成sheet XML，直接写入输出流的压缩包条目，每个字节只写一次：<br/>
+ * 1.样式、字体、数据格式仍由内存中的XSSFWorkbook管理，写完所有sheet后输出styles.xml；<br/>
+ * 2.每个sheet只有一个可复用的单元格对象，字符串以内联字符串写入，不生成共享字符串表；<br/>
+ * 单元格所在行只能设置行高与隐藏，不支持批注、超链接(调用时抛出UnsupportedOperationException)；<br/>
+ * 3.sheet对象上设置的列宽、合并单元格会写入sheet XML，其他sheet级设置不输出；<br/>
+ * 4.列宽在XML中位于行数据之前：自适应宽度的sheet在end中才确定列宽，其行数据先压缩缓存在内存中，其他sheet的列宽需在begin中设置；<br/>
+ * 5.设置{@link #setFlushRows(int)}后按行数分段刷新：压缩数据同步刷出(SYNC_FLUSH)并刷新输出流，<br/>
+ * 客户端在生成第一段行数据后即可收到数据，适合HTTP下载等需要尽早输出首字节的场景(自适应宽度的sheet仍需缓存到end)；<br/>
+ * 6.设置{@link #setExecutor(Executor)}后各sheet在执行器上并行生成，行数据分别压缩缓存在内存中，再按sheet顺序组装进压缩包：<br/>
+ * 各sheet按顺序轮流执行begin、创建样式、写入第一行(标题行)，保证样式序号与顺序生成时一致，输出内容与顺序生成相同；<br/>
+ * 因此并行生成时处理器只能在begin和第一行中创建样式、字体、数据格式，之后的行和end中只能使用已创建的样式；<br/>
+ * 执行器线程数少于sheet数时需要按提交顺序执行任务(如ThreadPoolExecutor)
+ *
+ * @author Frank
+ */
+public class XlsxStreamWriter {
+
+    private static final String XML_HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_R = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_RELS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    /**
+     * 最大行数
+     */
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    /**
+     * 最大列数
+     */
+    private static final int MAX_COLUMNS = SpreadsheetVersion.EXCEL2007.getMaxColumns();
+    /**
+     * 压缩包条目的修改时间(固定为1980-01-01 00:00，相同内容生成相同的文件)
+     */
+    private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.JANUARY, 1).getTimeInMillis();
+
+    /**
+     * 每写入多少行刷新一次输出流[0为不分段刷新，只在写完后刷新]
+     */
+    private int flushRows = 0;
+
+    /**
+     * 并行生成sheet的执行器[为空时在调用线程依次生成]
+     */
+    private Executor executor;
+
+    /**
+     * 获取分段刷新行数
+     *
+     * @return 每写入多少行刷新一次输出流
+     */
+    public int getFlushRows() {
+        return flushRows;
+    }
+
+    /**
+     * 传入分段刷新行数
+     *
+     * @param flushRows 每写入多少行刷新一次输出流[0为不分段刷新，只在写完后刷新]
+     */
+    public void setFlushRows(int flushRows) {
+        if (flushRows < 0) {
+            throw new IllegalArgumentException("flushRows must bigger than -1");
+        }
+        this.flushRows = flushRows;
+    }
+
+    /**
+     * 获取并行生成sheet的执行器
+     *
+     * @return 执行器[为空时在调用线程依次生成]
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 传入并行生成sheet的执行器<br/>
+     * 执行器由调用方管理，写入完成后不关闭
+     *
+     * @param executor 执行器[为空时在调用线程依次生成]
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 写入输出流(不关闭输出流)
+     *
+     * @param os       输出流
+     * @param handlers Execl写入处理器集合[按照顺序处理Sheet,SheetWriteHandler实例不要重用]
+     */
+    public void write(OutputStream os, SheetWriter... handlers) {
+        if (os == null) {
+            throw new IllegalArgumentException("OutputStream is null");
+        }
+        if (handlers == null || handlers.length == 0) {
+            throw new IllegalArgumentException("handlers is null or empty");
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            ZipOutputStream zos = flushRows > 0 ? new FlushableZipOutputStream(os) : new ZipOutputStream(os);
+            writeContentTypes(zos, handlers.length);
+            writeRootRelationships(zos);
+            if (flushRows > 0) {
+                zos.flush();
+            }
+            if (executor == null) {
+                for (int index = 0; index < handlers.length; index++) {
+                    writeSheet(zos, index, createSheet(workbook, handlers[index]), handlers[index]);
+                }
+            } else {
+                writeSheets(zos, workbook, handlers);
+            }
+            writeWorkbook(zos, workbook);
+            writeWorkbookRelationships(zos, handlers.length);
+            zos.putNextEntry(newEntry("xl/styles.xml"));
+            workbook.getStylesSource().writeTo(zos);
+            zos.closeEntry();
+            zos.finish();
+            os.flush();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 创建表
+     *
+     * @param workbook 工作簿
+     * @param handler  处理器
+     * @return 表
+     */
+    private XSSFSheet createSheet(XSSFWorkbook workbook, SheetWriter handler) {
+        if (handler != null && handler.getSheetName() != null && !"".equals(handler.getSheetName())) {
+            return workbook.createSheet(handler.getSheetName());
+        } else {
+            return workbook.createSheet();
+        }
+    }
+
+    /**
+     * 写入Sheet
+     *
+     * @param zos        压缩包
+     * @param sheetIndex sheet 序号
+     * @param sheet      表(样式、列宽、合并单元格的载体，不存放行)
+     * @param handler    处理器[为空写入空表]
+     */
+    private void writeSheet(ZipOutputStream zos, int sheetIndex, XSSFSheet sheet, SheetWriter handler) throws IOException {
+        if (handler == null || handler.isAutoWidth()) {
+            writeSheet(zos, sheetIndex, sheet, renderSheet(sheetIndex, sheet, handler, null));
+            return;
+        }
+        zos.putNextEntry(newEntry("xl/worksheets/sheet" + (sheetIndex + 1) + ".xml"));
+        Writer entry = newWriter(zos);
+        handler.begin(sheetIndex);
+        int maxColumnIndex = checkMaxColumnIndex(handler);
+        writeSheetHead(entry, sheetIndex, sheet);
+        writeRows(entry, sheet, handler, maxColumnIndex, flushRows, null);
+        handler.end(sheetIndex);
+        writeSheetTail(entry, sheet);
+        entry.flush();
+        zos.closeEntry();
+    }
+
+    /**
+     * 写入已生成的Sheet
+     *
+     * @param zos        压缩包
+     * @param sheetIndex sheet 序号
+     * @param sheet      表
+     * @param rows       压缩后的行数据[为空写入空表]
+     */
+    private void writeSheet(ZipOutputStream zos, int sheetIndex, XSSFSheet sheet, byte[] rows) throws IOException {
+        zos.putNextEntry(newEntry("xl/worksheets/sheet" + (sheetIndex + 1) + ".xml"));
+        Writer entry = newWriter(zos);
+        writeSheetHead(entry, sheetIndex, sheet);
+        if (rows == null) {
+            entry.write("<sheetData/>");
+        } else {
+            entry.flush();
+            try (InputStream is = new InflaterInputStream(new ByteArrayInputStream(rows))) {
+                byte[] bytes = new byte[8192];
+                int length;
+                while ((length = is.read(bytes)) != -1) {
+                    zos.write(bytes, 0, length);
+                }
+            }
+        }
+        writeSheetTail(entry, sheet);
+        entry.flush();
+        zos.closeEntry();
+    }
+
+    /**
+     * 生成Sheet的行数据，压缩缓存在内存中
+     *
+     * @param sheetIndex sheet 序号
+     * @param sheet      表
+     * @param handler    处理器[为空不生成]
+     * @param turnstile  并行生成时的轮转门[顺序生成时为空]
+     * @return 压缩后的行数据[处理器为空时为空]
+     */
+    private byte[] renderSheet(int sheetIndex, XSSFSheet sheet, SheetWriter handler, Turnstile turnstile) throws IOException {
+        if (handler == null) {
+            if (turnstile != null) {
+                turnstile.await(sheetIndex);
+                turnstile.pass(sheetIndex);
+            }
+            return null;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            Runnable pass = null;
+            if (turnstile != null) {
+                turnstile.await(sheetIndex);
+                pass = () -> turnstile.pass(sheetIndex);
+            }
+            handler.begin(sheetIndex);
+            int maxColumnIndex = checkMaxColumnIndex(handler);
+            try (Writer out = newWriter(new DeflaterOutputStream(buffer, deflater))) {
+                writeRows(out, sheet, handler, maxColumnIndex, 0, pass);
+                if (pass != null) {
+                    pass.run();
+                }
+                handler.end(sheetIndex);
+            }
+        } finally {
+            deflater.end();
+            if (turnstile != null) {
+                turnstile.pass(sheetIndex);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 在执行器上并行生成所有Sheet，按顺序写入压缩包
+     *
+     * @param zos      压缩包
+     * @param workbook 工作簿
+     * @param handlers 处理器集合
+     */
+    private void writeSheets(ZipOutputStream zos, XSSFWorkbook workbook, SheetWriter[] handlers) throws IOException {
+        XSSFSheet[] sheets = new XSSFSheet[handlers.length];
+        for (int index = 0; index < handlers.length; index++) {
+            sheets[index] = createSheet(workbook, handlers[index]);
+        }
+        Turnstile turnstile = new Turnstile(handlers.length);
+        List<FutureTask<byte[]>> tasks = new ArrayList<>(handlers.length);
+        try {
+            for (int index = 0; index < handlers.length; index++) {
+                int sheetIndex = index;
+                FutureTask<byte[]> task = new FutureTask<>(() -> renderSheet(sheetIndex, sheets[sheetIndex], handlers[sheetIndex], turnstile));
+                tasks.add(task);
+                executor.execute(task);
+            }
+            for (int index = 0; index < handlers.length; index++) {
+                writeSheet(zos, index, sheets[index], getRows(tasks.get(index), index));
+                if (flushRows > 0) {
+                    zos.flush();
+                }
+            }
+        } finally {
+            for (FutureTask<byte[]> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 创建压缩包条目(固定修改时间)
+     *
+     * @param name 条目名
+     * @return 条目
+     */
+    private static ZipEntry newEntry(String name) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(ENTRY_TIME);
+        return entry;
+    }
+
+    /**
+     * 等待Sheet生成完成
+     *
+     * @param task       生成任务
+     * @param sheetIndex sheet 序号
+     * @return 压缩后的行数据
+     */
+    private byte[] getRows(FutureTask<byte[]> task, int sheetIndex) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("sheet[" + sheetIndex + "] write interrupted", e);
+        } catch (CancellationException e) {
+            throw new IllegalArgumentException("sheet[" + sheetIndex + "] write cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalArgumentException("sheet[" + sheetIndex + "] write error", cause);
+        }
+    }
+
+    /**
+     * 校验最大列序号
+     *
+     * @param handler 处理器
+     * @return 最大列序号
+     */
+    private int checkMaxColumnIndex(SheetWriter handler) {
+        int maxColumnIndex = handler.getMaxColumnIndex();
+        if (maxColumnIndex >= MAX_COLUMNS) {
+            throw new IllegalArgumentException("maxColumnIndex[" + maxColumnIndex + "] is out of range (0.." + (MAX_COLUMNS - 1) + ")");
+        }
+        return maxColumnIndex;
+    }
+
+    /**
+     * 写入行数据
+     *
+     * @param out            输出
+     * @param sheet          表
+     * @param handler        处理器
+     * @param maxColumnIndex 最大列序号
+     * @param flushRows      每写入多少行刷新一次[0为不刷新]
+     * @param firstRowDone   写完第一行后的回调[可为空]
+     */
+    private void writeRows(Writer out, XSSFSheet sheet, SheetWriter handler, int maxColumnIndex, int flushRows, Runnable firstRowDone) throws IOException {
+        // excel仅支持64000个样式，所以仅创建列数*2个样式，标题行单独使用，内容行共用；定义方式写入由样式池自行创建样式(为空即默认样式)
+        boolean ownStyles = handler instanceof SchemaSheetWriter;
+        CellStyle[] titleStyles = new CellStyle[maxColumnIndex + 1];
+        CellStyle[] contentStyles = new CellStyle[maxColumnIndex + 1];
+        String[] columnNames = new String[maxColumnIndex + 1];
+        for (int columnIndex = 0; columnIndex <= maxColumnIndex; columnIndex++) {
+            if (!ownStyles) {
+                titleStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
+                contentStyles[columnIndex] = sheet.getWorkbook().createCellStyle();
+            }
+            columnNames[columnIndex] = CellReference.convertNumToColString(columnIndex);
+        }
+        XlsxStreamRow row = new XlsxStreamRow(sheet);
+        XlsxStreamCell cell = new XlsxStreamCell(row);
+        // 行高在写完单元格后才确定，单元格先写入行缓冲
+        CharArrayWriter rowBuffer = new CharArrayWriter(1024);
+        out.write("<sheetData>");
+        int rowIndex = 0;
+        while (handler.hasRow(rowIndex)) {
+            if (rowIndex >= MAX_ROWS) {
+                throw new IllegalArgumentException("rowIndex[" + rowIndex + "] is out of range (0.." + (MAX_ROWS - 1) + ")");
+            }
+            String rowNumber = String.valueOf(rowIndex + 1);
+            handler.beginRow(rowIndex);
+            row.reset(rowIndex);
+            CellStyle[] styles = rowIndex == 0 ? titleStyles : contentStyles;
+            for (int columnIndex = 0; columnIndex <= maxColumnIndex; columnIndex++) {
+                cell.reset(rowIndex, columnIndex, styles[columnIndex]);
+                handler.writeCell(cell, rowIndex, columnIndex);
+                writeCell(rowBuffer, cell, columnNames[columnIndex], rowNumber);
+            }
+            writeRowHead(out, row, rowNumber);
+            rowBuffer.writeTo(out);
+            rowBuffer.reset();
+            out.write("</row>");
+            handler.endRow(rowIndex);
+            if (rowIndex == 0 && firstRowDone != null) {
+                firstRowDone.run();
+            }
+            rowIndex++;
+            if (flushRows > 0 && rowIndex % flushRows == 0) {
+                out.flush();
+            }
+        }
+        out.write("</sheetData>");
+    }
+
+    /**
+     * 写入行标签(属性与SXSSF的输出一致)
+     *
+     * @param out       输出
+     * @param row       行
+     * @param rowNumber 行号[从1开始]
+     */
+    private void writeRowHead(Writer out, XlsxStreamRow row, String rowNumber) throws IOException {
+        out.write("<row r=\"");
+        out.write(rowNumber);
+        out.write('"');
+        if (row.hasCustomHeight()) {
+            out.write(" customHeight=\"true\" ht=\"");
+            out.write(Float.toString(row.getHeightInPoints()));
+            out.write('"');
+        }
+        if (row.getZeroHeight()) {
+            out.write(" hidden=\"true\"");
+        }
+        out.write('>');
+    }
+
+    /**
+     * 写入单元格(与SXSSF的输出一致)
+     *
+     * @param out        输出
+     * @param cell       单元格
+     * @param columnName 列名
+     * @param rowNumber  行号[从1开始]
+     */
+    private void writeCell(Writer out, XlsxStreamCell cell, String columnName, String rowNumber) throws IOException {
+        int style = cell.getCellStyle().getIndex() & 0xffff;
+        out.write("<c r=\"");
+        out.write(columnName);
+        out.write(rowNumber);
+        out.write('"');
+        if (style != 0) {
+            out.write(" s=\"");
+            out.write(String.valueOf(style));
+            out.write('"');
+        }
+        switch (cell.getCellTypeEnum()) {
+            case NUMERIC:
+                out.write(" t=\"n\"><v>");
+                writeNumber(out, cell.getNumericCellValue());
+                out.write("</v>");
+                break;
+            case STRING:
+                String value = cell.getString();
+                out.write(" t=\"inlineStr\"><is><t");
+                if (hasLeadingTrailingSpaces(value)) {
+                    out.write(" xml:space=\"preserve\"");
+                }
+                out.write('>');
+                writeEscaped(out, value);
+                out.write("</t></is>");
+                break;
+            case BOOLEAN:
+                out.write(" t=\"b\"><v>");
+                out.write(cell.getBooleanCellValue() ? '1' : '0');
+                out.write("</v>");
+                break;
+            case FORMULA:
+                out.write("><f>");
+                writeEscaped(out, cell.getCellFormula());
+                out.write("</f>");
+                double number = cell.getNumericCellValue();
+                if (!Double.isNaN(number)) {
+                    out.write("<v>");
+                    writeNumber(out, number);
+                    out.write("</v>");
+                }
+                break;
+            case ERROR:
+                out.write(" t=\"e\"><v>");
+                writeEscaped(out, FormulaError.forInt(cell.getErrorCellValue()).getString());
+                out.write("</v>");
+                break;
+            default:
+                out.write("/>");
+                return;
+        }
+        out.write("</c>");
+    }
+
+    /**
+     * 写入数字，整数不带小数部分
+     *
+     * @param out    输出
+     * @param number 数字
+     */
+    private void writeNumber(Writer out, double number) throws IOException {
+        if (number == (long) number && Math.abs(number) < 1e15) {
+            out.write(Long.toString((long) number));
+        } else {
+            out.write(Double.toString(number));
+        }
+    }
+
+    private void writeSheetHead(Writer out, int sheetIndex, XSSFSheet sheet) throws IOException {
+        out.write(XML_HEAD);
+        out.write("<worksheet xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_R + "\">");
+        out.write(sheetIndex == 0 ? "<sheetViews><sheetView tabSelected=\"1\" workbookViewId=\"0\"/></sheetViews>" : "<sheetViews><sheetView workbookViewId=\"0\"/></sheetViews>");
+        StringBuilder cols = new StringBuilder();
+        for (CTCols ctCols : sheet.getCTWorksheet().getColsArray()) {
+            for (CTCol col : ctCols.getColArray()) {
+                cols.append("<col min=\"").append(col.getMin()).append("\" max=\"").append(col.getMax()).append('"');
+                if (col.isSetWidth()) {
+                    cols.append(" width=\"").append(col.getWidth()).append('"');
+                }
+                if (col.isSetStyle()) {
+                    cols.append(" style=\"").append(col.getStyle()).append('"');
+                }
+                if (col.isSetHidden() && col.getHidden()) {
+                    cols.append(" hidden=\"1\"");
+                }
+                if (col.isSetCustomWidth() && col.getCustomWidth()) {
+                    cols.append(" customWidth=\"1\"");
+                }
+                cols.append("/>");
+            }
+        }
+        if (cols.length() > 0) {
+            out.write("<cols>");
+            out.write(cols.toString());
+            out.write("</cols>");
+        }
+    }
+
+    private void writeSheetTail(Writer out, XSSFSheet sheet) throws IOException {
+        if (sheet.getNumMergedRegions() > 0) {
+            out.write("<mergeCells count=\"" + sheet.getNumMergedRegions() + "\">");
+            for (CellRangeAddress region : sheet.getMergedRegions()) {
+                out.write("<mergeCell ref=\"" + region.formatAsString() + "\"/>");
+            }
+            out.write("</mergeCells>");
+        }
+        out.write("</worksheet>");
+    }
+
+    private void writeContentTypes(ZipOutputStream zos, int sheetNumber) throws IOException {
+        zos.putNextEntry(newEntry("[Content_Types].xml"));
+        Writer out = newWriter(zos);
+        out.write(XML_HEAD);
+        out.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">");
+        out.write("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>");
+        out.write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+        out.write("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        out.write("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetNumber; i++) {
+            out.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        out.write("</Types>");
+        out.flush();
+        zos.closeEntry();
+    }
+
+    private void writeRootRelationships(ZipOutputStream zos) throws IOException {
+        zos.putNextEntry(newEntry("_rels/.rels"));
+        Writer out = newWriter(zos);
+        out.write(XML_HEAD);
+        out.write("<Relationships xmlns=\"" + NS_RELS + "\">");
+        out.write("<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>");
+        out.write("</Relationships>");
+        out.flush();
+        zos.closeEntry();
+    }
+
+    private void writeWorkbook(ZipOutputStream zos, XSSFWorkbook workbook) throws IOException {
+        zos.putNextEntry(newEntry("xl/workbook.xml"));
+        Writer out = newWriter(zos);
+        out.write(XML_HEAD);
+        out.write("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_R + "\">");
+        out.write("<bookViews><workbookView/></bookViews><sheets>");
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            out.write("<sheet name=\"");
+            writeEscaped(out, workbook.getSheetName(i));
+            out.write("\" sheetId=\"" + (i + 1) + "\" r:id=\"rId" + (i + 1) + "\"/>");
+        }
+        out.write("</sheets></workbook>");
+        out.flush();
+        zos.closeEntry();
+    }
+
+    private void writeWorkbookRelationships(ZipOutputStream zos, int sheetNumber) throws IOException {
+        zos.putNextEntry(newEntry("xl/_rels/workbook.xml.rels"));
+        Writer out = newWriter(zos);
+        out.write(XML_HEAD);
+        out.write("<Relationships xmlns=\"" + NS_RELS + "\">");
+        for (int i = 1; i <= sheetNumber; i++) {
+            out.write("<Relationship Id=\"rId" + i + "\" Type=\"" + NS_R + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        out.write("<Relationship Id=\"rId" + (sheetNumber + 1) + "\" Type=\"" + NS_R + "/styles\" Target=\"styles.xml\"/>");
+        out.write("</Relationships>");
+        out.flush();
+        zos.closeEntry();
+    }
+
+    /**
+     * UTF-8输出(不关闭底层流时只需flush)
+     *
+     * @param os 输出流
+     * @return 输出
+     */
+    private Writer newWriter(OutputStream os) {
+        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * 写入转义后的文本(与SXSSF一致，控制字符替换为?)
+     *
+     * @param out   输出
+     * @param value 文本
+     */
+    private void writeEscaped(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        int last = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replace;
+            switch (c) {
+                case '<':
+                    replace = "&lt;";
+                    break;
+                case '>':
+                    replace = "&gt;";
+                    break;
+                case '&':
+                    replace = "&amp;";
+                    break;
+                case '"':
+                    replace = "&quot;";
+                    break;
+                case '\n':
+                    replace = "&#xa;";
+                    break;
+                case '\r':
+                    replace = "&#xd;";
+                    break;
+                case '\t':
+                    replace = "&#x9;";
+                    break;
+                default:
+                    if (c < ' ' || ('\uFFFE' <= c && c <= '\uFFFF')) {
+                        replace = "?";
+                    } else {
+                        continue;
+                    }
+                    break;
+            }
+            if (i > last) {
+                out.write(value, last, i - last);
+            }
+            out.write(replace);
+            last = i + 1;
+        }
+        if (length > last) {
+            out.write(value, last, length - last);
+        }
+    }
+
+    private boolean hasLeadingTrailingSpaces(String value) {
+        return value != null && value.length() > 0 && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+    }
+
+    /**
+     * 轮转门<br/>
+     * 并行生成时各sheet按序号依次通过：前一个sheet通过(写完第一行或结束)后，后一个sheet才能开始使用工作簿
+     */
+    private static class Turnstile {
+
+        /**
+         * 每个sheet是否已通过
+         */
+        private final CountDownLatch[] passed;
+
+        Turnstile(int sheetNumber) {
+            passed = new CountDownLatch[sheetNumber];
+            for (int i = 0; i < sheetNumber; i++) {
+                passed[i] = new CountDownLatch(1);
+            }
+        }
+
+        /**
+         * 等待前一个sheet通过
+         *
+         * @param sheetIndex sheet 序号
+         */
+        void await(int sheetIndex) {
+            if (sheetIndex == 0) {
+                return;
+            }
+            try {
+                passed[sheetIndex - 1].await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalArgumentException("sheet[" + sheetIndex + "] write interrupted", e);
+            }
+        }
+
+        /**
+         * 通过(可重复调用)
+         *
+         * @param sheetIndex sheet 序号
+         */
+        void pass(int sheetIndex) {
+            passed[sheetIndex].countDown();
+        }
+    }
+
+    /**
+     * 可分段刷新的压缩输出流<br/>
+     * flush时把当前条目已压缩的数据同步刷出(SYNC_FLUSH)后再刷新底层输出流；<br/>
+     * 条目的大小、CRC仍由压缩器统计，不影响压缩包结构
+     */
+    private static class FlushableZipOutputStream extends ZipOutputStream {
+
+        /**
+         * 是否有打开的条目
+         */
+        private boolean entryOpen;
+
+        FlushableZipOutputStream(OutputStream os) {
+            super(os);
+        }
+
+        @Override
+        public void putNextEntry(ZipEntry e) throws IOException {
+            super.putNextEntry(e);
+            entryOpen = true;
+        }
+
+        @Override
+        public void closeEntry() throws IOException {
+            super.closeEntry();
+            entryOpen = false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (entryOpen && !def.finished()) {
+                int length;
+                while ((length = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH)) > 0) {
+                    out.write(buf, 0, length);
+                }
+            }
+            out.flush();
+        }
+    }
+
+}
@@ -0,0 +1,348 @@
+package cn.emay.excel.write.writer.impl;
+
+import cn.emay.excel.common.schema.base.ColumnSchema;
+import cn.emay.excel.utils.ColumnWidthEstimator;
+import cn.emay.excel.utils.DateCodec;
+import cn.emay.excel.utils.ExcelUtils;
+import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.utils.FieldAccessor;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.Date;
+
+/**
+ * 列写入器<br/>
+ * 写入前按字段类型选定写入方式，并解析好表达式(小数位数、日期格式)，<br/>
+ * 列的数据格式由样式池在sheet开始时一次性设置，写入单元格时只写值，不再修改样式；<br/>
+ * 写入规则与{@link ExcelWriteUtils#write(Cell, Object, String)}一致；<br/>
+ * 自适应宽度时按值的类型直接估算显示宽度，不转换字符串
+ *
+ * @author Frank
+ */
+abstract class ColumnWriter {
+
+    /**
+     * 整数数据格式("0")
+     */
+    private static final short INTEGER_FORMAT = (short) BuiltinFormats.getBuiltinFormat("0");
+    /**
+     * 无日期格式时的显示宽度(日期序列值，如43831.5)
+     */
+    private static final int DATE_WIDTH = 10;
+
+    /**
+     * 字段访问器
+     */
+    final FieldAccessor accessor;
+    /**
+     * 标题
+     */
+    private final String title;
+
+    ColumnWriter(FieldAccessor accessor, ColumnSchema column) {
+        this.accessor = accessor;
+        this.title = "".equals(column.getTitle().trim()) ? accessor.getName() : column.getTitle();
+    }
+
+    /**
+     * 编译列写入器
+     *
+     * @param field  字段访问器
+     * @param column 列定义
+     * @return 列写入器
+     */
+    static ColumnWriter compile(FieldAccessor field, ColumnSchema column) {
+        Class<?> fieldClass = field.getType();
+        String express = column.getExpress();
+        if (int.class.isAssignableFrom(fieldClass) || Integer.class.isAssignableFrom(fieldClass)) {
+            return new IntegerWriter(field, column);
+        } else if (Double.class.isAssignableFrom(fieldClass) || double.class.isAssignableFrom(fieldClass)) {
+            return new DoubleWriter(field, column, ExcelUtils.parserExpressToInt(express));
+        } else if (Long.class.isAssignableFrom(fieldClass) || long.class.isAssignableFrom(fieldClass)) {
+            return new LongWriter(field, column);
+        } else if (BigDecimal.class.isAssignableFrom(fieldClass)) {
+            return new BigDecimalWriter(field, column, ExcelUtils.parserExpressToInt(express));
+        } else if (Date.class.isAssignableFrom(fieldClass)) {
+            return new DateWriter(field, column, express);
+        } else if (DateCodec.isTemporal(fieldClass)) {
+            return new TemporalWriter(field, column, express);
+        } else if (Boolean.class.isAssignableFrom(fieldClass) || boolean.class.isAssignableFrom(fieldClass)) {
+            return new BooleanWriter(field, column);
+        } else if (String.class.isAssignableFrom(fieldClass)) {
+            return new StringWriter(field, column);
+        }
+        return new AnyWriter(field, column, express);
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return 字段名
+     */
+    String getFieldName() {
+        return accessor.getName();
+    }
+
+    /**
+     * 获取标题(未定义标题时为字段名)
+     *
+     * @return 标题
+     */
+    String getTitle() {
+        return title;
+    }
+
+    /**
+     * 内容单元格的数据格式
+     *
+     * @param workbook 工作簿
+     * @return 数据格式[-1为不设置]
+     */
+    short getDataFormat(Workbook workbook) {
+        return -1;
+    }
+
+    /**
+     * 写入值
+     *
+     * @param cell  单元格
+     * @param value 值[不为空]
+     */
+    abstract void write(Cell cell, Object value);
+
+    /**
+     * 估算值的显示宽度
+     *
+     * @param value 值[不为空]
+     * @return 显示宽度(字符数)
+     */
+    abstract int estimateWidth(Object value);
+
+    private static class IntegerWriter extends ColumnWriter {
+
+        IntegerWriter(FieldAccessor field, ColumnSchema column) {
+            super(field, column);
+        }
+
+        @Override
+        short getDataFormat(Workbook workbook) {
+            return INTEGER_FORMAT;
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            cell.setCellType(CellType.NUMERIC);
+            cell.setCellValue((Integer) value);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width((Integer) value);
+        }
+    }
+
+    private static class LongWriter extends ColumnWriter {
+
+        LongWriter(FieldAccessor field, ColumnSchema column) {
+            super(field, column);
+        }
+
+        @Override
+        short getDataFormat(Workbook workbook) {
+            return INTEGER_FORMAT;
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            cell.setCellType(CellType.NUMERIC);
+            cell.setCellValue((Long) value);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width((Long) value);
+        }
+    }
+
+    private static class DoubleWriter extends ColumnWriter {
+
+        /**
+         * 小数位数
+         */
+        private final int scale;
+
+        DoubleWriter(FieldAccessor field, ColumnSchema column, int scale) {
+            super(field, column);
+            this.scale = scale;
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            ExcelWriteUtils.writeDouble(cell, (Double) value, scale);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width((Double) value, scale);
+        }
+    }
+
+    private static class BigDecimalWriter extends ColumnWriter {
+
+        /**
+         * 小数位数
+         */
+        private final int scale;
+
+        BigDecimalWriter(FieldAccessor field, ColumnSchema column, int scale) {
+            super(field, column);
+            this.scale = scale;
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            ExcelWriteUtils.writeBigDecimal(cell, (BigDecimal) value, scale);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width((BigDecimal) value, scale);
+        }
+    }
+
+    private static class DateWriter extends ColumnWriter {
+
+        /**
+         * 日期编解码器[无日期格式为空]
+         */
+        private final DateCodec codec;
+
+        /**
+         * 显示宽度
+         */
+        private final int width;
+
+        DateWriter(FieldAccessor field, ColumnSchema column, String express) {
+            super(field, column);
+            this.codec = express == null ? null : DateCodec.of(express);
+            this.width = express == null ? DATE_WIDTH : ColumnWidthEstimator.width(express);
+        }
+
+        @Override
+        short getDataFormat(Workbook workbook) {
+            return codec == null ? -1 : codec.getDataFormat(workbook);
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            cell.setCellType(CellType.NUMERIC);
+            cell.setCellValue(DateCodec.toExcel((Date) value));
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return width;
+        }
+    }
+
+    private static class TemporalWriter extends ColumnWriter {
+
+        /**
+         * 日期编解码器[无日期格式为空]
+         */
+        private final DateCodec codec;
+
+        /**
+         * 显示宽度
+         */
+        private final int width;
+
+        TemporalWriter(FieldAccessor field, ColumnSchema column, String express) {
+            super(field, column);
+            this.codec = express == null ? null : DateCodec.of(express);
+            this.width = express == null ? DATE_WIDTH : ColumnWidthEstimator.width(express);
+        }
+
+        @Override
+        short getDataFormat(Workbook workbook) {
+            return codec == null ? -1 : codec.getDataFormat(workbook);
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            cell.setCellType(CellType.NUMERIC);
+            cell.setCellValue(DateCodec.toExcel((Temporal) value));
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return width;
+        }
+    }
+
+    private static class BooleanWriter extends ColumnWriter {
+
+        BooleanWriter(FieldAccessor field, ColumnSchema column) {
+            super(field, column);
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            ExcelWriteUtils.writeBoolean(cell, (Boolean) value);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return (Boolean) value ? 4 : 5;
+        }
+    }
+
+    private static class StringWriter extends ColumnWriter {
+
+        StringWriter(FieldAccessor field, ColumnSchema column) {
+            super(field, column);
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            ExcelWriteUtils.writeString(cell, (String) value);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width((String) value);
+        }
+    }
+
+    /**
+     * 其他类型字段：按值的实际类型写入
+     */
+    private static class AnyWriter extends ColumnWriter {
+
+        /**
+         * 数据格式
+         */
+        private final String express;
+
+        AnyWriter(FieldAccessor field, ColumnSchema column, String express) {
+            super(field, column);
+            this.express = express;
+        }
+
+        @Override
+        void write(Cell cell, Object value) {
+            ExcelWriteUtils.write(cell, value, express);
+        }
+
+        @Override
+        int estimateWidth(Object value) {
+            return ColumnWidthEstimator.width(String.valueOf(value));
+        }
+    }
+
+}
@@ -3,10 +3,12 @@ package cn.emay.excel.write.writer.impl;
 import cn.emay.excel.common.schema.base.ColumnSchema;
 import cn.emay.excel.common.schema.base.SheetSchema;
 import cn.emay.excel.common.schema.base.SheetWriteSchemaParams;
+import cn.emay.excel.common.schema.mapper.ExcelMappers;
+import cn.emay.excel.utils.ColumnWidthEstimator;
 import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.utils.FieldAccessor;
 import cn.emay.excel.write.data.SheetDataGetter;
 import cn.emay.excel.write.writer.SheetWriter;
-import cn.emay.utils.clazz.ClassUtils;
 import org.apache.poi.hssf.usermodel.HSSFPalette;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined;
@@ -14,11 +16,13 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 
-import java.lang.reflect.Field;
 import java.util.*;
 
 /**
- * 基于Schema的写入处理器
+ * 基于Schema的写入处理器<br/>
+ * 写入前按列编译好写入器；sheet开始(写入第一个单元格)时按列一次性生成标题、内容样式(含数据格式)，<br/>
+ * 写入单元格时只设置样式和值，不再修改样式、创建字体；<br/>
+ * 自适应宽度按字符类别估算(可抽样)，在sheet结束时一次性设置列宽
  *
  * @param <D>
  * @author Frank
@@ -31,9 +35,13 @@ public class SchemaSheetWriter<D> implements SheetWriter {
     private static final int[] DEFAULT_RGB_COLOR = {255, 255, 255};
 
     /**
-     * 每一列的最大宽度
+     * 列宽估算器[不自适应宽度时为空]
      */
-    private final Map<Integer, Integer> maxWidth = new HashMap<>();
+    private ColumnWidthEstimator widths;
+    /**
+     * 当前行是否估算宽度
+     */
+    private boolean isMeasureRow;
     /**
      * 是否内容需要颜色
      */
@@ -48,13 +56,13 @@ public class SchemaSheetWriter<D> implements SheetWriter {
      */
     private final SheetWriteSchemaParams writeSchemaParams;
     /**
-     * 列定义集合
+     * 按列序号排列的列写入器[没有字段的列为空]
      */
-    private final Map<Integer, ColumnSchema> schemaMap = new HashMap<>();
+    private final ColumnWriter[] columns;
     /**
-     * 字段集合
+     * 样式池
      */
-    private final Map<Integer, Field> fieldMap = new HashMap<>();
+    private StylePool styles;
     /**
      * 最大的列序号
      */
@@ -93,9 +101,8 @@ public class SchemaSheetWriter<D> implements SheetWriter {
         this.isContentNeedColor = !Arrays.equals(writeSchemaParams.getContentRgbColor(), DEFAULT_RGB_COLOR);
         this.isTitleNeedColor = !Arrays.equals(writeSchemaParams.getTitleRgbColor(), DEFAULT_RGB_COLOR);
         Set<Integer> columnIndexs = new HashSet<>();
-        Field[] fields = ClassUtils.getAllFields(writeData.getDataClass());
-        for (Field field : fields) {
-            field.setAccessible(true);
+        Map<Integer, ColumnWriter> writerMap = new HashMap<>();
+        for (FieldAccessor field : ExcelMappers.getAccessors(writeData.getDataClass())) {
             ColumnSchema csma = schema.getExcelColumnByFieldName(field.getName());
             if (csma == null) {
                 continue;
@@ -104,13 +111,16 @@ public class SchemaSheetWriter<D> implements SheetWriter {
                 throw new IllegalArgumentException(writeData.getDataClass().getName() + " has same columnIndex[" + csma.getIndex() + "] filed.");
             }
             columnIndexs.add(csma.getIndex());
-            schemaMap.put(csma.getIndex(), csma);
-            fieldMap.put(csma.getIndex(), field);
+            writerMap.put(csma.getIndex(), ColumnWriter.compile(field, csma));
             maxColumnIndex = Math.max(maxColumnIndex, csma.getIndex());
         }
-        if (fieldMap.size() == 0) {
+        if (writerMap.size() == 0) {
             throw new IllegalArgumentException("dataClass[" + writeData.getDataClass().getName() + "] is not has ExcelColumn filed  ");
         }
+        columns = new ColumnWriter[maxColumnIndex + 1];
+        for (Map.Entry<Integer, ColumnWriter> entry : writerMap.entrySet()) {
+            columns[entry.getKey()] = entry.getValue();
+        }
     }
 
     @Override
@@ -146,58 +156,59 @@ public class SchemaSheetWriter<D> implements SheetWriter {
     @Override
     public void begin(int sheetIndex) {
         this.sheetIndex = sheetIndex;
+        if (this.isAutoWidth()) {
+            widths = new ColumnWidthEstimator(maxColumnIndex + 1, writeSchemaParams.getAutoWidthSampleRows(), writeSchemaParams.getAutoWidthSampleStride());
+        }
     }
 
     @Override
     public void beginRow(int rowIndex) {
+        int dataIndex = rowIndex;
         if (writeSchemaParams.isWriteTile()) {
+            dataIndex--;
             if (rowIndex != 0) {
-                curr = writeData.getData(rowIndex - 1);
+                curr = writeData.getData(dataIndex);
             }
         } else {
-            curr = writeData.getData(rowIndex);
+            curr = writeData.getData(dataIndex);
         }
+        isMeasureRow = widths != null && (dataIndex < 0 || widths.isSampled(dataIndex));
     }
 
     @Override
     public void writeCell(Cell cell, int rowIndex, int columnIndex) {
-        writeStyle(cell, rowIndex, columnIndex);
-        Field field = fieldMap.get(columnIndex);
-        if (field == null) {
-            return;
+        boolean isTitle = rowIndex == 0 && writeSchemaParams.isWriteTile();
+        if (rowIndex == 0) {
+            if (columnIndex == 0 || styles == null) {
+                sheet = cell.getSheet();
+                styles = new StylePool(sheet.getWorkbook());
+            }
         }
-        ColumnSchema columnSchema = schemaMap.get(columnIndex);
-        if (columnSchema == null) {
+        cell.setCellStyle(isTitle ? styles.titleStyles[columnIndex] : styles.contentStyles[columnIndex]);
+        ColumnWriter column = columnIndex < columns.length ? columns[columnIndex] : null;
+        if (column == null) {
             return;
         }
-        int length = 0;
-        if (rowIndex == 0 && writeSchemaParams.isWriteTile()) {
-            String title = "".equals(columnSchema.getTitle().trim()) ? field.getName() : columnSchema.getTitle();
+        if (isTitle) {
+            String title = column.getTitle();
             ExcelWriteUtils.writeString(cell, title);
-            length = title.getBytes().length;
+            if (isMeasureRow) {
+                widths.measure(columnIndex, ColumnWidthEstimator.width(title));
+            }
         } else {
             if (curr == null) {
                 return;
             }
             try {
-                Object obj = field.get(curr);
-                ExcelWriteUtils.write(cell, obj, columnSchema.getExpress());
-                if (this.isAutoWidth()) {
-                    if (!boolean.class.isAssignableFrom(field.getType()) && !Boolean.class.isAssignableFrom(field.getType())) {
-                        length = String.valueOf(obj).getBytes().length;
-                    } else {
-                        length = 6;
+                Object obj = column.accessor.get(curr);
+                if (obj != null) {
+                    column.write(cell, obj);
+                    if (isMeasureRow) {
+                        widths.measure(columnIndex, column.estimateWidth(obj));
                     }
                 }
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                throw new IllegalArgumentException("sheet(" + writeSchemaParams.getWriteSheetName() + ")[" + sheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] get value from [" + field.getName() + "] and write error", e);
-            }
-        }
-        if (this.isAutoWidth()) {
-            length *= 256;
-            Integer maxlength = maxWidth.get(columnIndex);
-            if (maxlength == null || maxlength < length) {
-                maxWidth.put(columnIndex, length);
+            } catch (IllegalArgumentException | ClassCastException e) {
+                throw new IllegalArgumentException("sheet(" + writeSchemaParams.getWriteSheetName() + ")[" + sheetIndex + "]-row[" + rowIndex + "]-column[" + columnIndex + "] get value from [" + column.getFieldName() + "] and write error", e);
             }
         }
     }
@@ -209,32 +220,36 @@ public class SchemaSheetWriter<D> implements SheetWriter {
 
     @Override
     public void end(int sheetIndex) {
-        if (this.isAutoWidth()) {
-            for (Integer columnIndex : maxWidth.keySet()) {
-                Integer width = maxWidth.get(columnIndex);
-                if (width != null) {
-                    sheet.setColumnWidth(columnIndex, width * 125 / 100);
+        if (widths != null && sheet != null) {
+            for (int columnIndex = 0; columnIndex < widths.getColumns(); columnIndex++) {
+                int width = widths.getColumnWidth(columnIndex);
+                if (width >= 0) {
+                    sheet.setColumnWidth(columnIndex, width);
                 }
             }
         }
+        widths = null;
     }
 
     /**
-     * 写入样式
-     *
-     * @param cell        单元格
-     * @param rowIndex    行号
-     * @param columnIndex 列号
+     * 样式池<br/>
+     * 每列一个标题样式、一个内容样式，创建后不再修改；标题共用一个粗体字体
      */
-    private void writeStyle(Cell cell, int rowIndex, int columnIndex) {
-        CellStyle style = cell.getCellStyle();
-        if (rowIndex == 0) {
-            sheet = cell.getSheet();
-            if (this.isAutoWidth()) {
-                sheet.autoSizeColumn(columnIndex);
-            }
-            if (HSSFWorkbook.class.isAssignableFrom(cell.getSheet().getWorkbook().getClass())) {
-                HSSFPalette palette = ((HSSFWorkbook) cell.getSheet().getWorkbook()).getCustomPalette();
+    private class StylePool {
+
+        /**
+         * 标题样式
+         */
+        private final CellStyle[] titleStyles;
+        /**
+         * 内容样式
+         */
+        private final CellStyle[] contentStyles;
+
+        StylePool(Workbook workbook) {
+            boolean isHssf = HSSFWorkbook.class.isAssignableFrom(workbook.getClass());
+            if (isHssf) {
+                HSSFPalette palette = ((HSSFWorkbook) workbook).getCustomPalette();
                 if (isTitleNeedColor) {
                     palette.setColorAtIndex(HSSFColorPredefined.GREY_25_PERCENT.getIndex(), (byte) writeSchemaParams.getTitleRgbColor()[0], (byte) writeSchemaParams.getTitleRgbColor()[1], (byte) writeSchemaParams.getTitleRgbColor()[2]);
                 }
@@ -243,40 +258,73 @@ public class SchemaSheetWriter<D> implements SheetWriter {
                             (byte) writeSchemaParams.getContentRgbColor()[2]);
                 }
             }
-        }
-        if (rowIndex == 0 && writeSchemaParams.isWriteTile()) {
-            Font font = cell.getSheet().getWorkbook().createFont();
-            font.setBold(true);
-            style.setFont(font);
-            style.setAlignment(HorizontalAlignment.CENTER);
-            if (isTitleNeedColor) {
-                if (HSSFWorkbook.class.isAssignableFrom(cell.getSheet().getWorkbook().getClass())) {
-                    style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-                } else {
-                    ((XSSFCellStyle) style).setFillForegroundColor(new XSSFColor(new java.awt.Color(writeSchemaParams.getTitleRgbColor()[0], writeSchemaParams.getTitleRgbColor()[1], writeSchemaParams.getTitleRgbColor()[2])));
+            Font font = null;
+            if (writeSchemaParams.isWriteTile()) {
+                font = workbook.createFont();
+                font.setBold(true);
+            }
+            titleStyles = new CellStyle[maxColumnIndex + 1];
+            contentStyles = new CellStyle[maxColumnIndex + 1];
+            for (int columnIndex = 0; columnIndex <= maxColumnIndex; columnIndex++) {
+                CellStyle content = workbook.createCellStyle();
+                if (isContentNeedColor) {
+                    fill(content, isHssf, IndexedColors.GREY_40_PERCENT, writeSchemaParams.getContentRgbColor());
+                }
+                decorate(content);
+                ColumnWriter column = columns[columnIndex];
+                short format = column == null ? -1 : column.getDataFormat(workbook);
+                if (format >= 0) {
+                    content.setDataFormat(format);
                 }
-                style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+                contentStyles[columnIndex] = content;
+                if (font == null) {
+                    titleStyles[columnIndex] = content;
+                    continue;
+                }
+                CellStyle title = workbook.createCellStyle();
+                title.setFont(font);
+                title.setAlignment(HorizontalAlignment.CENTER);
+                if (isTitleNeedColor) {
+                    fill(title, isHssf, IndexedColors.GREY_25_PERCENT, writeSchemaParams.getTitleRgbColor());
+                }
+                decorate(title);
+                titleStyles[columnIndex] = title;
             }
-        } else if (isContentNeedColor) {
-            if (HSSFWorkbook.class.isAssignableFrom(cell.getSheet().getWorkbook().getClass())) {
-                style.setFillForegroundColor(IndexedColors.GREY_40_PERCENT.getIndex());
+        }
+
+        /**
+         * 填充颜色
+         *
+         * @param style  样式
+         * @param isHssf 是否XLS
+         * @param index  XLS使用的调色板颜色
+         * @param rgb    XLSX使用的颜色
+         */
+        private void fill(CellStyle style, boolean isHssf, IndexedColors index, int[] rgb) {
+            if (isHssf) {
+                style.setFillForegroundColor(index.getIndex());
             } else {
-                ((XSSFCellStyle) style).setFillForegroundColor(new XSSFColor(new java.awt.Color(writeSchemaParams.getContentRgbColor()[0], writeSchemaParams.getContentRgbColor()[1], writeSchemaParams.getContentRgbColor()[2])));
+                ((XSSFCellStyle) style).setFillForegroundColor(new XSSFColor(new java.awt.Color(rgb[0], rgb[1], rgb[2])));
             }
             style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
         }
 
-        if (writeSchemaParams.isNeedBorder()) {
-            style.setBorderLeft(BorderStyle.THIN);
-            style.setBorderTop(BorderStyle.THIN);
-            style.setBorderBottom(BorderStyle.THIN);
-            style.setBorderRight(BorderStyle.THIN);
-        }
-        if (writeSchemaParams.isAutoWrap()) {
-            style.setWrapText(true);
+        /**
+         * 边框、自动换行
+         *
+         * @param style 样式
+         */
+        private void decorate(CellStyle style) {
+            if (writeSchemaParams.isNeedBorder()) {
+                style.setBorderLeft(BorderStyle.THIN);
+                style.setBorderTop(BorderStyle.THIN);
+                style.setBorderBottom(BorderStyle.THIN);
+                style.setBorderRight(BorderStyle.THIN);
+            }
+            if (writeSchemaParams.isAutoWrap()) {
+                style.setWrapText(true);
+            }
         }
-        cell.setCellStyle(style);
     }
 
-
 }
@@ -1,23 +1,100 @@
 package cn.emay.excel;
 
+import cn.emay.excel.common.ExcelVersion;
 import cn.emay.excel.common.Person;
+import cn.emay.excel.common.schema.annotation.ExcelColumn;
+import cn.emay.excel.common.schema.annotation.ExcelSheet;
+import cn.emay.excel.common.schema.base.ColumnSchema;
+import cn.emay.excel.common.schema.base.SheetReadSchemaParams;
+import cn.emay.excel.common.schema.base.SheetSchema;
+import cn.emay.excel.common.schema.base.SheetSchemaCache;
+import cn.emay.excel.common.schema.base.SheetWriteSchemaParams;
+import cn.emay.excel.common.schema.mapper.ExcelMapper;
+import cn.emay.excel.common.schema.mapper.ExcelMappers;
 import cn.emay.excel.read.ExcelReader;
 import cn.emay.excel.read.NormalReader;
 import cn.emay.excel.read.PersonDataHandler;
 import cn.emay.excel.read.PersonSchemaDataHandler;
+import cn.emay.excel.read.core.BaseReader;
+import cn.emay.excel.read.core.CachedSharedStrings;
+import cn.emay.excel.read.core.CellNumberFormat;
+import cn.emay.excel.read.core.MappedSharedStrings;
+import cn.emay.excel.read.core.XlsReader;
+import cn.emay.excel.read.core.XlsStreamReader;
+import cn.emay.excel.read.core.XlsxReader;
+import cn.emay.excel.read.core.XlsxSharedStrings;
+import cn.emay.excel.read.reader.ProjectionSheetReader;
+import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.read.reader.SparseSheetReader;
+import cn.emay.excel.read.reader.impl.SchemaSheetReader;
+import cn.emay.excel.utils.ColumnWidthEstimator;
+import cn.emay.excel.utils.DateCodec;
+import cn.emay.excel.utils.ExcelReadUtils;
+import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.utils.FieldAccessor;
 import cn.emay.excel.write.ExcelWriter;
 import cn.emay.excel.write.NormalWriter;
 import cn.emay.excel.write.PersonDataGetter;
 import cn.emay.excel.write.PersonSchemaDataGetter;
 import cn.emay.excel.write.data.WriteData;
+import cn.emay.excel.write.writer.SheetWriter;
+import cn.emay.excel.write.writer.impl.SchemaSheetWriter;
+import cn.emay.utils.clazz.ClassUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.*;
 import org.junit.runners.MethodSorters;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 /**
  * 5组测试:<br/>
@@ -128,6 +205,1255 @@ public class ExcelTest {
         check(list);
     }
 
+    @Test
+    public void scannerXlsxTest() {
+        XlsxReader xlsxReader = new XlsxReader();
+        xlsxReader.setSheetEngine(XlsxReader.SheetEngine.SCANNER);
+        // 内联字符串
+        ExcelWriter.write(xlsxPath, new NormalWriter(titles, datas));
+        NormalReader reader = new NormalReader();
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, reader);
+        checkTitle(reader.getTitles());
+        check(reader.getDatas());
+        new File(xlsxPath).delete();
+        // 共享字符串
+        ExcelWriter.write(xlsxPath, 10, new NormalWriter(titles, datas));
+        PersonDataHandler red = new PersonDataHandler();
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, new SchemaSheetReader<>(new SheetSchema(Person.class), red));
+        check(red.getDatas());
+    }
+
+    @Test
+    public void mappedSharedStringsXlsxTest() {
+        XlsxReader xlsxReader = new XlsxReader();
+        xlsxReader.setSharedStringsStore(XlsxReader.SharedStringsStore.MAPPED);
+        ExcelWriter.write(xlsxPath, 10, new NormalWriter(titles, datas));
+        NormalReader reader = new NormalReader();
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, reader);
+        checkTitle(reader.getTitles());
+        check(reader.getDatas());
+        Assert.assertTrue(xlsxReader.getSharedStringsCacheMisses() > 0);
+        // 第二次读取同一文件，缓存为每次读取独立
+        long misses = xlsxReader.getSharedStringsCacheMisses();
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, new NormalReader());
+        Assert.assertEquals(misses * 2, xlsxReader.getSharedStringsCacheMisses());
+        xlsxReader.resetSharedStringsCacheStats();
+        Assert.assertEquals(0L, xlsxReader.getSharedStringsCacheHits());
+    }
+
+    @Test
+    public void cachedSharedStringsTest() throws Exception {
+        final int[] loads = new int[1];
+        XlsxSharedStrings source = new XlsxSharedStrings() {
+            @Override
+            public int size() {
+                return 100;
+            }
+
+            @Override
+            public String getString(int index) {
+                loads[0]++;
+                return "s" + index;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        CachedSharedStrings sst = new CachedSharedStrings(source, 20);
+        for (int round = 0; round < 3; round++) {
+            for (int index = 0; index < 20; index++) {
+                Assert.assertEquals("s" + index, sst.getString(index));
+            }
+        }
+        // 未满时第一轮未命中，之后全部命中
+        Assert.assertEquals(20, sst.getMisses());
+        Assert.assertEquals(40, sst.getHits());
+        Assert.assertEquals(20, loads[0]);
+        Assert.assertEquals(20, sst.getCachedCount());
+        // 缓存满后淘汰最久未使用的字符串，数量不超过上限
+        for (int index = 20; index < 100; index++) {
+            Assert.assertEquals("s" + index, sst.getString(index));
+        }
+        Assert.assertEquals(20, sst.getCachedCount());
+        Assert.assertEquals(100, sst.getMisses());
+        Assert.assertEquals("s99", sst.getString(99));
+        Assert.assertEquals(41, sst.getHits());
+        Assert.assertEquals("s0", sst.getString(0));
+        Assert.assertEquals(101, sst.getMisses());
+        Assert.assertEquals(101, loads[0]);
+        Assert.assertEquals(20, sst.getCachedCount());
+
+        // 并发读取结果正确
+        CachedSharedStrings shared = new CachedSharedStrings(new SharedStringsStub(), 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100000; i++) {
+                        int index = i % 200;
+                        Assert.assertEquals("s" + index, shared.getString(index));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(400000, shared.getHits() + shared.getMisses());
+        Assert.assertTrue(shared.getCachedCount() <= 64);
+    }
+
+    /**
+     * 支持并发读取的共享字符串表
+     */
+    private static class SharedStringsStub implements XlsxSharedStrings {
+
+        @Override
+        public int size() {
+            return 200;
+        }
+
+        @Override
+        public String getString(int index) {
+            return "s" + index;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void mappedSharedStringsEntityTest() throws IOException {
+        File secret = File.createTempFile("emay-excel-secret", ".txt");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(secret)) {
+                fos.write("secret".getBytes(StandardCharsets.UTF_8));
+            }
+            String xml = "<?xml version=\"1.0\"?><!DOCTYPE sst [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>"
+                    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><si><t>a&xxe;</t></si></sst>";
+            try (MappedSharedStrings sst = new MappedSharedStrings(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null)) {
+                // 外部实体不解析
+                Assert.assertEquals(1, sst.size());
+                Assert.assertEquals("a", sst.getString(0));
+            }
+        } finally {
+            secret.delete();
+        }
+    }
+
+    @Test
+    public void workbookEntityTest() throws IOException {
+        ExcelWriter.write(xlsxPath, new NormalWriter(titles, datas));
+        File missing = new File(xlsxPath + ".missing");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(xlsxPath)); ZipOutputStream zos = new ZipOutputStream(bos)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int len;
+                while ((len = zis.read(buffer)) > 0) {
+                    content.write(buffer, 0, len);
+                }
+                byte[] bytes = content.toByteArray();
+                if ("xl/workbook.xml".equals(entry.getName())) {
+                    // workbook.xml中引用不存在文件的外部实体
+                    String xml = new String(bytes, StandardCharsets.UTF_8);
+                    int root = xml.indexOf("<workbook");
+                    xml = xml.substring(0, root) + "<!DOCTYPE workbook [<!ENTITY xxe SYSTEM \"" + missing.toURI() + "\">]>" + xml.substring(root);
+                    root = xml.indexOf('>', xml.indexOf("<workbook", root)) + 1;
+                    xml = xml.substring(0, root) + "&xxe;" + xml.substring(root);
+                    bytes = xml.getBytes(StandardCharsets.UTF_8);
+                }
+                zos.putNextEntry(new ZipEntry(entry.getName()));
+                zos.write(bytes);
+                zos.closeEntry();
+            }
+        }
+        // 外部实体不解析，正常读取
+        XlsxReader xlsxReader = new XlsxReader();
+        xlsxReader.setSheetEngine(XlsxReader.SheetEngine.SAX);
+        NormalReader reader = new NormalReader();
+        xlsxReader.readBySheetIndex(new ByteArrayInputStream(bos.toByteArray()), 0, reader);
+        checkTitle(reader.getTitles());
+        check(reader.getDatas());
+    }
+
+    @Test
+    public void parallelXlsxTest() {
+        ExcelWriter.write(xlsxPath, 10, new NormalWriter(titles, datas), new NormalWriter(titles, datas) {
+            @Override
+            public String getSheetName() {
+                return "personData2";
+            }
+        }, new NormalWriter(titles, datas) {
+            @Override
+            public String getSheetName() {
+                return "personData3";
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            XlsxReader xlsxReader = new XlsxReader();
+            xlsxReader.setExecutor(executor);
+            NormalReader[] readers = {new NormalReader(), new NormalReader(), new NormalReader()};
+            xlsxReader.readByOrder(new File(xlsxPath), readers);
+            for (NormalReader reader : readers) {
+                checkTitle(reader.getTitles());
+                check(reader.getDatas());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelXlsxErrorTest() {
+        ExcelWriter.write(xlsxPath, 10, new NormalWriter(titles, datas), new NormalWriter(titles, datas) {
+            @Override
+            public String getSheetName() {
+                return "personData2";
+            }
+        });
+        // 两个sheet都失败：第一个sheet的异常为主，第二个作为被抑制的异常
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            XlsxReader xlsxReader = new XlsxReader();
+            xlsxReader.setExecutor(executor);
+            xlsxReader.readByOrder(new File(xlsxPath), new FailReader("sheet0 failed"), new FailReader("sheet1 failed"));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Throwable primary = findCause(e, "sheet0 failed");
+            Assert.assertNotNull(primary);
+            Assert.assertEquals(1, primary.getSuppressed().length);
+            Assert.assertNotNull(findCause(primary.getSuppressed()[0], "sheet1 failed"));
+        } finally {
+            executor.shutdown();
+        }
+        // 调用线程的异常(提交被拒绝)不会被并行sheet的异常替换
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+
+            private int submitted;
+
+            @Override
+            public void execute(Runnable command) {
+                // 只接受第一个sheet
+                if (submitted++ > 0) {
+                    throw new RejectedExecutionException("busy");
+                }
+                super.execute(command);
+            }
+        };
+        try {
+            XlsxReader xlsxReader = new XlsxReader();
+            xlsxReader.setExecutor(executor);
+            xlsxReader.readByOrder(new File(xlsxPath), new FailReader("sheet0 failed"), new NormalReader());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Throwable primary = findCause(e, null);
+            Assert.assertTrue(primary instanceof RejectedExecutionException);
+            Assert.assertEquals(1, primary.getSuppressed().length);
+            Assert.assertNotNull(findCause(primary.getSuppressed()[0], "sheet0 failed"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 按消息查找异常链中的异常
+     *
+     * @param e       异常
+     * @param message 消息[为空时返回最底层的异常]
+     * @return 异常[没有找到为空]
+     */
+    private Throwable findCause(Throwable e, String message) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (message == null ? cause.getCause() == null : message.equals(cause.getMessage())) {
+                return cause;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * 读取第一个单元格时失败的读取处理器
+     */
+    private static class FailReader extends NormalReader {
+
+        private final String message;
+
+        FailReader(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    @Test
+    public void streamXlsTest() {
+        ExcelWriter.write(xlsPath, new NormalWriter(titles, datas), new NormalWriter(titles, datas) {
+            @Override
+            public String getSheetName() {
+                return "personData2";
+            }
+        });
+        XlsStreamReader xlsReader = new XlsStreamReader();
+        // 字符串回调
+        NormalReader reader = new NormalReader();
+        xlsReader.readBySheetIndex(new File(xlsPath), 0, reader);
+        checkTitle(reader.getTitles());
+        check(reader.getDatas());
+        // 类型回调、按表名匹配
+        PersonDataHandler red = new PersonDataHandler();
+        xlsReader.readBySheetName(new File(xlsPath), "personData2", new SchemaSheetReader<>(new SheetSchema(Person.class), red));
+        check(red.getDatas());
+    }
+
+    @Test
+    public void streamXlsFormulaTest() throws IOException {
+        // 各类公式缓存结果：流式读取应与XlsReader读取缓存结果一致，空字符串结果不能丢失
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); FileOutputStream fos = new FileOutputStream(xlsPath)) {
+            Sheet sheet = workbook.createSheet();
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(1);
+            row.createCell(1).setCellValue("x");
+            row = sheet.createRow(1);
+            Cell cell = row.createCell(0);
+            cell.setCellFormula("A1*2");
+            cell.setCellValue(2);
+            cell = row.createCell(1);
+            cell.setCellFormula("B1&\"y\"");
+            cell.setCellValue("xy");
+            cell = row.createCell(2);
+            cell.setCellFormula("TRIM(\" \")");
+            cell.setCellValue("");
+            cell = row.createCell(3);
+            cell.setCellFormula("A1>0");
+            cell.setCellValue(true);
+            cell = row.createCell(4);
+            cell.setCellFormula("A1/0");
+            cell.setCellErrorValue(FormulaError.DIV0.getCode());
+            row.createCell(5).setCellValue("after");
+            row = sheet.createRow(2);
+            cell = row.createCell(0);
+            cell.setCellFormula("TRIM(\" \")");
+            cell.setCellValue("");
+            cell = row.createCell(1);
+            cell.setCellFormula("B1&\"z\"");
+            cell.setCellValue("xz");
+            workbook.write(fos);
+        }
+        final Map<String, String> streamed = new HashMap<>();
+        new XlsStreamReader().readBySheetIndex(new File(xlsPath), 0, new NormalReader() {
+            @Override
+            public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
+                streamed.put(rowIndex + "," + columnIndex, value);
+            }
+        });
+        final Map<String, String> cached = new HashMap<>();
+        XlsReader cachedReader = new XlsReader();
+        cachedReader.setFormulaResult(XlsReader.FormulaResult.CACHED);
+        cachedReader.readBySheetIndex(new File(xlsPath), 0, new NormalReader() {
+            @Override
+            public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+                if (cell != null) {
+                    // 流式读取与XlsxReader一致，布尔值为TRUE/FALSE
+                    String value = ExcelReadUtils.readString(cell);
+                    cached.put(rowIndex + "," + columnIndex, "true".equals(value) || "false".equals(value) ? value.toUpperCase() : value);
+                }
+            }
+        });
+        Assert.assertEquals(cached, streamed);
+        Assert.assertEquals("", streamed.get("1,2"));
+        Assert.assertEquals("after", streamed.get("1,5"));
+        Assert.assertEquals("", streamed.get("2,0"));
+        Assert.assertEquals("xz", streamed.get("2,1"));
+    }
+
+    @Test
+    public void formulaEvaluatorXlsTest() throws IOException {
+        int size = 200;
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); FileOutputStream fos = new FileOutputStream(xlsPath)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue(1);
+            for (int i = 1; i < size; i++) {
+                sheet.createRow(i).createCell(0).setCellFormula("A" + i + "+1");
+            }
+            workbook.write(fos);
+        }
+        final List<Integer> values = new ArrayList<>(size);
+        final Set<FormulaEvaluator> evaluators = new HashSet<>();
+        new XlsReader().readBySheetIndex(new File(xlsPath), 0, new NormalReader() {
+            @Override
+            public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+                if (cell == null) {
+                    return;
+                }
+                evaluators.add(ExcelReadUtils.getFormulaEvaluator(cell));
+                values.add(ExcelReadUtils.readInteger(cell));
+            }
+        });
+        // 读取期间共用一个计算器
+        Assert.assertEquals(1, evaluators.size());
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(Integer.valueOf(i + 1), values.get(i));
+        }
+    }
+
+    @Test
+    public void cachedFormulaXlsTest() throws IOException {
+        // 保存的计算结果与公式不一致：默认计算公式，只读缓存结果时读出保存值
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); FileOutputStream fos = new FileOutputStream(xlsPath)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue(1);
+            Cell cell = sheet.createRow(1).createCell(0);
+            cell.setCellFormula("A1+1");
+            cell.setCellValue(100);
+            workbook.write(fos);
+        }
+        final List<Integer> evaluated = new ArrayList<>();
+        new XlsReader().readBySheetIndex(new File(xlsPath), 0, new NormalReader() {
+            @Override
+            public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+                if (cell != null) {
+                    evaluated.add(ExcelReadUtils.readInteger(cell));
+                }
+            }
+        });
+        Assert.assertEquals(Integer.valueOf(2), evaluated.get(1));
+        final List<Integer> cached = new ArrayList<>();
+        XlsReader cachedReader = new XlsReader();
+        cachedReader.setFormulaResult(XlsReader.FormulaResult.CACHED);
+        cachedReader.readBySheetIndex(new File(xlsPath), 0, new NormalReader() {
+            @Override
+            public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+                if (cell != null) {
+                    cached.add(ExcelReadUtils.readInteger(cell));
+                }
+            }
+        });
+        Assert.assertEquals(Integer.valueOf(100), cached.get(1));
+    }
+
+    @Test
+    public void sparseXlsTest() throws IOException {
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); FileOutputStream fos = new FileOutputStream(xlsPath)) {
+            Sheet sheet = workbook.createSheet();
+            Row row = sheet.createRow(0);
+            row.createCell(3).setCellValue("a");
+            row.createCell(200).setCellValue("b");
+            workbook.write(fos);
+        }
+        final List<Integer> columns = new ArrayList<>();
+        class SparseReader extends NormalReader implements SparseSheetReader {
+            @Override
+            public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+                Assert.assertNotNull(cell);
+                columns.add(columnIndex);
+            }
+        }
+        ExcelReader.readFirstSheet(xlsPath, new SparseReader());
+        Assert.assertEquals("[3, 200]", columns.toString());
+    }
+
+    @Test
+    public void titleSchemaTest() {
+        ExcelWriter.write(xlsPath, new NormalWriter(titles, datas));
+        ExcelWriter.write(xlsxPath, 10, new NormalWriter(titles, datas));
+        List<PersonSchemaDataHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            handlers.add(new PersonSchemaDataHandler());
+        }
+        ExcelReader.readFirstSheet(xlsPath, titleSchemaReader(handlers.get(0)));
+        ExcelReader.readFirstSheet(xlsxPath, titleSchemaReader(handlers.get(1)));
+        XlsxReader xlsxReader = new XlsxReader();
+        xlsxReader.setSheetEngine(XlsxReader.SheetEngine.SCANNER);
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, titleSchemaReader(handlers.get(2)));
+        new XlsStreamReader().readBySheetIndex(new File(xlsPath), 0, titleSchemaReader(handlers.get(3)));
+        for (PersonSchemaDataHandler handler : handlers) {
+            check(handler.getDatas());
+        }
+    }
+
+    /**
+     * 按标题读取(列序号与实际列不一致)
+     */
+    private SchemaSheetReader<Person> titleSchemaReader(PersonSchemaDataHandler handler) {
+        SheetSchema schema = handler.getSheetSchema();
+        schema.getSheetReadSchemaParams().setReadColumnBy("Title");
+        schema.getSheetReadSchemaParams().setReadDataEndRowIndex(datas.size());
+        for (String fieldName : new String[]{"age", "name", "brith", "createTime", "score", "hasGlass", "money"}) {
+            ColumnSchema column = schema.getExcelColumnByFieldName(fieldName);
+            column.setIndex(10 - column.getIndex());
+        }
+        return new SchemaSheetReader<>(schema, handler);
+    }
+
+    @Test
+    public void pipelineSchemaTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ExcelWriter.write(xlsPath, new PersonSchemaDataGetter(datas));
+            PersonSchemaDataHandler xlsRed = new PersonSchemaDataHandler();
+            ExcelReader.readFirstSheet(xlsPath, new SchemaSheetReader<>(xlsRed, executor, 4));
+            check(xlsRed.getDatas());
+            ExcelWriter.write(xlsxPath, new PersonSchemaDataGetter(datas));
+            PersonSchemaDataHandler xlsxRed = new PersonSchemaDataHandler();
+            ExcelReader.readFirstSheet(xlsxPath, new SchemaSheetReader<>(xlsxRed, executor, 4));
+            check(xlsxRed.getDatas());
+            // 处理器异常传递给调用方
+            try {
+                ExcelReader.readFirstSheet(xlsxPath, new SchemaSheetReader<>(new PersonSchemaDataHandler() {
+                    @Override
+                    public void handle(int rowIndex, Person data) {
+                        throw new IllegalStateException("handle error");
+                    }
+                }, executor, 2));
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+                Assert.assertEquals("handle error", e.getCause().getMessage());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void pipelineSharedExecutorTest() {
+        ExcelWriter.write(xlsxPath, new PersonSchemaDataGetter(datas));
+        // 解析任务占用线程池唯一的线程，转换任务只能由处理线程完成
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        final Set<String> handlerThreads = new HashSet<>();
+        ThreadFactory factory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "custom-handler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        try {
+            XlsxReader xlsxReader = new XlsxReader();
+            xlsxReader.setExecutor(executor);
+            PersonSchemaDataHandler red = new PersonSchemaDataHandler() {
+                @Override
+                public void handle(int rowIndex, Person data) {
+                    handlerThreads.add(Thread.currentThread().getName());
+                    super.handle(rowIndex, data);
+                }
+            };
+            xlsxReader.readBySheetIndex(new File(xlsxPath), 0, new SchemaSheetReader<>(red, executor, 2, factory));
+            check(red.getDatas());
+            Assert.assertEquals(Collections.singleton("custom-handler"), handlerThreads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void pipelineAbortTest() {
+        List<Person> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.addAll(datas);
+        }
+        ExcelWriter.write(xlsPath, new PersonSchemaDataGetter(rows));
+        ExcelWriter.write(xlsxPath, new PersonSchemaDataGetter(rows));
+        XlsxReader saxReader = new XlsxReader();
+        saxReader.setSheetEngine(XlsxReader.SheetEngine.SAX);
+        XlsxReader scannerReader = new XlsxReader();
+        scannerReader.setSheetEngine(XlsxReader.SheetEngine.SCANNER);
+        BaseReader[] readers = {new XlsReader(), new XlsStreamReader(), saxReader, scannerReader};
+        String[] paths = {xlsPath, xlsPath, xlsxPath, xlsxPath};
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                // 行缓冲小于行数，解析到一半失败
+                try {
+                    readers[i].readBySheetIndex(new File(paths[i]), 0, new SchemaSheetReader<Person>(new PersonSchemaDataHandler(), executor, 2) {
+                        @Override
+                        public void beginRow(int rowIndex) {
+                            if (rowIndex == 15) {
+                                throw new IllegalStateException("parse error");
+                            }
+                            super.beginRow(rowIndex);
+                        }
+                    });
+                    Assert.fail();
+                } catch (RuntimeException e) {
+                    Assert.assertNotNull(findCause(e, "parse error"));
+                }
+                // 处理线程已退出
+                for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                    Assert.assertFalse(thread.getName(), thread.isAlive() && thread.getName().startsWith("excel-read-handler-"));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void allocationXlsxTest() throws IOException {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled());
+        File small = File.createTempFile("allocation", ".xlsx");
+        File large = File.createTempFile("allocation", ".xlsx");
+        try {
+            writeCells(small, 3000);
+            writeCells(large, 13000);
+            for (XlsxReader.SheetEngine engine : XlsxReader.SheetEngine.values()) {
+                XlsxReader xlsxReader = new XlsxReader();
+                xlsxReader.setSheetEngine(engine);
+                // 预热
+                allocatedBytes(mxBean, xlsxReader, small);
+                // 两个文件的差值即为单元格的边际分配，扣除打开包、样式表等固定开销
+                double perCell = (allocatedBytes(mxBean, xlsxReader, large) - allocatedBytes(mxBean, xlsxReader, small)) / (10000 * 10.0);
+                // 数字/内联字符串值本身约48字节，扫描器除值外不应有其他分配；SAX解析器自身会为属性分配字符串
+                Assert.assertTrue(engine + " allocated " + perCell + " bytes per cell", perCell < (XlsxReader.SheetEngine.SCANNER.equals(engine) ? 96 : 256));
+            }
+        } finally {
+            small.delete();
+            large.delete();
+        }
+    }
+
+    private long allocatedBytes(com.sun.management.ThreadMXBean mxBean, XlsxReader xlsxReader, File file) {
+        long threadId = Thread.currentThread().getId();
+        long begin = mxBean.getThreadAllocatedBytes(threadId);
+        xlsxReader.readBySheetIndex(file, 0, new NormalReader() {
+            @Override
+            public void beginRow(int rowIndex) {
+            }
+
+            @Override
+            public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
+            }
+
+            @Override
+            public void endRow(int rowIndex) {
+            }
+        });
+        return mxBean.getThreadAllocatedBytes(threadId) - begin;
+    }
+
+    private void writeCells(File file, int rows) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); FileOutputStream fos = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
+                Row row = sheet.createRow(rowIndex);
+                for (int columnIndex = 0; columnIndex < 10; columnIndex++) {
+                    if (columnIndex % 2 == 0) {
+                        row.createCell(columnIndex).setCellValue(rowIndex * 10 + columnIndex);
+                    } else {
+                        row.createCell(columnIndex).setCellValue("v" + columnIndex);
+                    }
+                }
+            }
+            workbook.write(fos);
+            workbook.dispose();
+        }
+    }
+
+    @Test
+    public void typedXlsxTest() throws IOException {
+        Date brith = new Date(1500000000000L);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream fos = new FileOutputStream(xlsxPath)) {
+            workbook.getCTWorkbook().getWorkbookPr().setDate1904(true);
+            Sheet sheet = workbook.createSheet();
+            Row title = sheet.createRow(0);
+            for (int i = 0; i < titles.size(); i++) {
+                title.createCell(i).setCellValue(titles.get(i));
+            }
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(30.6);
+            row.getCell(0).setCellStyle(formatStyle(workbook, "0"));
+            row.createCell(1).setCellValue("name");
+            row.createCell(2).setCellValue(brith);
+            row.getCell(2).setCellStyle(formatStyle(workbook, "yyyy-mm-dd"));
+            row.createCell(3).setCellValue(1234567890123L);
+            row.getCell(3).setCellStyle(formatStyle(workbook, "#,##0"));
+            row.createCell(4).setCellValue(0.8765);
+            row.getCell(4).setCellStyle(formatStyle(workbook, "0.00%"));
+            row.createCell(5).setCellValue(true);
+            row.createCell(6).setCellValue(12.34567);
+            row.getCell(6).setCellStyle(formatStyle(workbook, "0.00"));
+            workbook.write(fos);
+        }
+        PersonDataHandler red = new PersonDataHandler();
+        new XlsxReader().readBySheetIndex(new File(xlsxPath), 0, new SchemaSheetReader<>(new SheetSchema(Person.class), red));
+        Person person = red.getDatas().get(0);
+        // 数字按原始值读取，不受单元格显示格式影响
+        Assert.assertEquals(Integer.valueOf(30), person.getAge());
+        Assert.assertEquals(brith, person.getBrith());
+        Assert.assertEquals(1234567890123L, person.getCreateTime());
+        Assert.assertEquals(Double.valueOf(0.88), person.getScore());
+        Assert.assertEquals(Boolean.TRUE, person.getHasGlass());
+        Assert.assertEquals(new BigDecimal("12.3457"), person.getMoney());
+    }
+
+    private CellStyle formatStyle(XSSFWorkbook workbook, String format) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat(format));
+        return style;
+    }
+
+    @Test
+    public void projectionTest() {
+        ExcelWriter.write(xlsPath, new NormalWriter(titles, datas));
+        ExcelWriter.write(xlsxPath, new NormalWriter(titles, datas));
+        List<SheetReader> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            readers.add(new ProjectionReader());
+        }
+        ExcelReader.readFirstSheet(xlsPath, readers.get(0));
+        ExcelReader.readFirstSheet(xlsxPath, readers.get(1));
+        XlsxReader xlsxReader = new XlsxReader();
+        xlsxReader.setSheetEngine(XlsxReader.SheetEngine.SCANNER);
+        xlsxReader.readBySheetIndex(new File(xlsxPath), 0, readers.get(2));
+        for (SheetReader reader : readers) {
+            ProjectionReader projectionReader = (ProjectionReader) reader;
+            checkTitle(projectionReader.getTitles());
+            // 数据行只收到声明的第0、2列
+            Assert.assertEquals("[0, 2]", projectionReader.columns.toString());
+            List<Person> list = projectionReader.getDatas();
+            Assert.assertEquals(datas.size(), list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Assert.assertEquals(datas.get(i).getAge(), list.get(i).getAge());
+                Assert.assertNull(list.get(i).getName());
+            }
+        }
+        // 按序号读取：所有行只解析定义中的列
+        PersonDataHandler red = new PersonDataHandler();
+        SchemaSheetReader<Person> schemaReader = new SchemaSheetReader<>(new SheetSchema(Person.class), red);
+        ExcelReader.readFirstSheet(xlsxPath, schemaReader);
+        check(red.getDatas());
+        Assert.assertEquals(titles.size(), schemaReader.getReadColumns(1).length);
+    }
+
+    /**
+     * 只读取第0、2列
+     */
+    private static class ProjectionReader extends NormalReader implements ProjectionSheetReader {
+
+        private final Set<Integer> columns = new TreeSet<>();
+
+        @Override
+        public boolean[] getReadColumns(int rowIndex) {
+            return rowIndex == 0 ? null : new boolean[]{true, false, true};
+        }
+
+        @Override
+        public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+            if (rowIndex > 0) {
+                columns.add(columnIndex);
+            }
+            super.handleXlsCell(rowIndex, columnIndex, cell);
+        }
+
+        @Override
+        public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
+            if (rowIndex > 0) {
+                columns.add(columnIndex);
+            }
+            super.handleXlsxCell(rowIndex, columnIndex, value);
+        }
+    }
+
+    @Test
+    public void excelMapperTest() {
+        ExcelMapper<Person> mapper = ExcelMappers.get(Person.class);
+        Assert.assertNotNull(mapper);
+        Assert.assertEquals(ExcelMappers.getMapperName(Person.class), mapper.getClass().getName());
+        Assert.assertNull(ExcelMappers.get(NormalReader.class));
+        // 生成的定义与注解一致
+        SheetSchema generated = new SheetSchema(Person.class);
+        SheetSchema annotated = new SheetSchema((SheetReadSchemaParams) null, null);
+        annotated.setSheetSchemaParams(Person.class.getAnnotation(ExcelSheet.class));
+        for (Field field : ClassUtils.getAllFields(Person.class)) {
+            if (field.isAnnotationPresent(ExcelColumn.class)) {
+                annotated.setColumnSchema(field.getName(), field.getAnnotation(ExcelColumn.class));
+                ColumnSchema expected = annotated.getExcelColumnByFieldName(field.getName());
+                ColumnSchema actual = generated.getExcelColumnByFieldName(field.getName());
+                Assert.assertEquals(expected.getIndex(), actual.getIndex());
+                Assert.assertEquals(expected.getTitle(), actual.getTitle());
+                Assert.assertEquals(expected.getExpress(), actual.getExpress());
+            }
+        }
+        SheetWriteSchemaParams expectedWrite = annotated.getSheetWriteSchemaParams();
+        SheetWriteSchemaParams actualWrite = generated.getSheetWriteSchemaParams();
+        Assert.assertArrayEquals(expectedWrite.getTitleRgbColor(), actualWrite.getTitleRgbColor());
+        Assert.assertArrayEquals(expectedWrite.getContentRgbColor(), actualWrite.getContentRgbColor());
+        Assert.assertEquals(expectedWrite.isNeedBorder(), actualWrite.isNeedBorder());
+        Assert.assertEquals(expectedWrite.isWriteTile(), actualWrite.isWriteTile());
+        Assert.assertEquals(annotated.getSheetReadSchemaParams().getReadDataStartRowIndex(), generated.getSheetReadSchemaParams().getReadDataStartRowIndex());
+        Assert.assertEquals(annotated.getSheetReadSchemaParams().getReadColumnBy(), generated.getSheetReadSchemaParams().getReadColumnBy());
+        // 有getter/setter的私有字段不使用反射
+        Person person = mapper.newData();
+        for (FieldAccessor accessor : ExcelMappers.getAccessors(Person.class)) {
+            Assert.assertEquals(mapper.getClass(), accessor.getClass().getEnclosingClass());
+            if ("createTime".equals(accessor.getName())) {
+                accessor.setLong(person, 42L);
+                Assert.assertEquals(42L, accessor.get(person));
+            }
+        }
+        // 非私有字段直接读写，私有字段调用setter，没有getter/setter的私有字段使用反射
+        Assert.assertNotNull(ExcelMappers.get(MapperData.class));
+        MapperData data = new MapperData();
+        for (FieldAccessor accessor : ExcelMappers.getAccessors(MapperData.class)) {
+            if ("count".equals(accessor.getName())) {
+                Assert.assertEquals(ExcelMappers.get(MapperData.class).getClass(), accessor.getClass().getEnclosingClass());
+                accessor.setInt(data, 42);
+                Assert.assertEquals(42, accessor.get(data));
+            } else if ("name".equals(accessor.getName())) {
+                Assert.assertEquals(ExcelMappers.get(MapperData.class).getClass(), accessor.getClass().getEnclosingClass());
+                accessor.set(data, " a ");
+                Assert.assertEquals("a", accessor.get(data));
+            } else {
+                Assert.assertSame(FieldAccessor.of(MapperData.class, accessor.getName()), accessor);
+                accessor.set(data, " b ");
+                Assert.assertEquals(" b ", accessor.get(data));
+            }
+        }
+        // 读写经过映射器
+        ExcelWriter.write(xlsxPath, datas);
+        check(ExcelReader.readFirstSheet(xlsxPath, Person.class));
+    }
+
+    /**
+     * 生成映射器的数据
+     */
+    @ExcelSheet
+    public static class MapperData {
+
+        @ExcelColumn(index = 0, title = "数量")
+        int count;
+
+        @ExcelColumn(index = 1, title = "名字")
+        private String name;
+
+        @ExcelColumn(index = 2, title = "备注")
+        private String remark;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name == null ? null : name.trim();
+        }
+    }
+
+    @Test
+    public void schemaCacheTest() throws Exception {
+        SheetSchemaCache.warmUp(Person.class, TestMe.Excc.class);
+        SheetSchema schema = SheetSchemaCache.get(Person.class);
+        Assert.assertSame(schema, SheetSchemaCache.get(Person.class));
+        Assert.assertNotSame(schema, new SheetSchema(Person.class));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SheetSchema>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> SheetSchemaCache.get(Person.class)));
+            }
+            for (Future<SheetSchema> future : futures) {
+                Assert.assertSame(schema, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // 静态入口使用缓存的定义
+        ExcelWriter.write(xlsPath, datas);
+        check(ExcelReader.readFirstSheet(xlsPath, Person.class));
+        Assert.assertSame(schema, SheetSchemaCache.get(Person.class));
+    }
+
+    @Test
+    public void dateCodecTest() throws Exception {
+        Assert.assertSame(DateCodec.of("yyyy-MM-dd"), DateCodec.of("yyyy-MM-dd"));
+        Assert.assertNull(DateCodec.of(null).parse("2020-01-01"));
+        Assert.assertNull(DateCodec.of("[$-409]mmm").parse("Jan"));
+        // 与SimpleDateFormat宽松解析结果一致
+        String[][] cases = {{"yyyy-MM-dd HH:mm:ss", "2020-01-05 10:11:12"}, {"yyyy-MM-dd HH:mm:ss", "2020-1-5 1:2:3"}, {"yyyy-MM-dd", "2020-02-31"},
+                {"yyyyMMdd", "20200105"}, {"yy-MM-dd", "99-01-01"}, {"yyyy-MM-dd", "2020-01-05 trailing"}, {"yyyy-MM-dd HH:mm:ss.SSS", "2020-01-05 10:11:12.345"},
+                {"yyyy年MM月dd日", "2020年01月05日"}, {"MM/dd", "03/04"}, {"yyyy-MM-dd", "abc"}};
+        for (String[] c : cases) {
+            Date expected = null;
+            try {
+                expected = new SimpleDateFormat(c[0]).parse(c[1]);
+            } catch (ParseException ignored) {
+            }
+            Assert.assertEquals(c[0] + " " + c[1], expected, DateCodec.of(c[0]).parse(c[1]));
+        }
+        // 与POI的日期换算一致
+        double[] serials = {0, 1, 59, 60, 61, 1000.25, 43831.5, 43831.999999, 2958465.99};
+        for (double serial : serials) {
+            Assert.assertEquals(DateUtil.getJavaDate(serial, false), DateCodec.toDate(serial, false));
+            Assert.assertEquals(DateUtil.getJavaDate(serial, true), DateCodec.toDate(serial, true));
+        }
+        Assert.assertNull(DateCodec.toDate(-1, false));
+        long now = System.currentTimeMillis();
+        for (long millis : new long[]{now, now - 1000L * 60 * 60 * 24 * 365 * 50, -2208988800000L, 0, 1234567L}) {
+            Date date = new Date(millis);
+            Assert.assertEquals(DateUtil.getExcelDate(date, false), DateCodec.toExcel(date, false), 0);
+            Assert.assertEquals(DateUtil.getExcelDate(date, true), DateCodec.toExcel(date, true), 0);
+        }
+        // 写入时数据格式按工作簿缓存
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            DateCodec codec = DateCodec.of("yyyy/MM/dd");
+            short index = codec.getDataFormat(workbook);
+            Assert.assertEquals(index, codec.getDataFormat(workbook));
+            Assert.assertEquals("yyyy/MM/dd", workbook.createDataFormat().getFormat(index));
+        }
+    }
+
+    @Test
+    public void javaTimeTest() throws IOException {
+        // 与Date换算结果一致
+        double[] serials = {1, 59, 61, 1000.25, 43831.5, 43831.999999, 2958465.99};
+        for (double serial : serials) {
+            for (boolean date1904 : new boolean[]{false, true}) {
+                LocalDateTime time = DateCodec.toLocalDateTime(serial, date1904);
+                Assert.assertEquals(DateCodec.toDate(serial, date1904), Date.from(time.atZone(ZoneId.systemDefault()).toInstant()));
+                Assert.assertEquals(serial, DateCodec.toExcel(time, date1904), 0.00000001);
+            }
+        }
+        Assert.assertNull(DateCodec.toLocalDateTime(-1, false));
+        Assert.assertEquals(0.5, DateCodec.toExcel(LocalTime.of(12, 0)), 0);
+        Assert.assertEquals(43831, DateCodec.toExcel(LocalDate.of(2020, 1, 1)), 0);
+        Assert.assertEquals(LocalDateTime.of(2020, 1, 5, 1, 2, 3), DateCodec.of("yyyy-MM-dd HH:mm:ss").parseLocalDateTime("2020-1-5 1:2:3"));
+        Assert.assertEquals(LocalDate.of(2020, 3, 2), ExcelReadUtils.read(LocalDate.class, "2020-02-31", "yyyy-MM-dd"));
+        // 写入后按各类型读回
+        LocalDateTime time = LocalDateTime.of(2020, 1, 5, 10, 11, 12);
+        Object[] values = {time, time.toLocalDate(), time.toLocalTime(), time.atZone(ZoneId.systemDefault()).toInstant(),
+                time.atZone(ZoneId.systemDefault()).toOffsetDateTime()};
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet().createRow(0);
+            for (int i = 0; i < values.length; i++) {
+                Cell cell = row.createCell(i);
+                ExcelWriteUtils.write(cell, values[i], "yyyy-MM-dd HH:mm:ss");
+                Assert.assertTrue(DateUtil.isCellDateFormatted(cell));
+                Assert.assertEquals(values[i], ExcelReadUtils.read(values[i].getClass(), cell, "yyyy-MM-dd HH:mm:ss"));
+                Assert.assertEquals(values[i], ExcelReadUtils.read(values[i].getClass(), cell.getNumericCellValue(), false, null));
+            }
+            if (workbook.getCTWorkbook().getWorkbookPr() == null) {
+                workbook.getCTWorkbook().addNewWorkbookPr();
+            }
+            workbook.getCTWorkbook().getWorkbookPr().setDate1904(true);
+            Cell cell = row.createCell(values.length);
+            cell.setCellValue(DateCodec.toExcel(time, true));
+            Assert.assertEquals(time, ExcelReadUtils.readLocalDateTime(cell, null));
+        }
+    }
+
+    @Test
+    public void cellNumberFormatTest() {
+        // 日期、百分比、分数、科学计数、多段格式，与DataFormatter.formatRawCellContents逐一比对
+        int[] formatIndexes = {0, 14, 22, 10, 13, 11, 4, 164, 165, 166, 167, 168};
+        String[] formatStrings = {"General", "m/d/yy", "m/d/yy h:mm", "0.00%", "# ??/??", "0.00E+00", "#,##0.00",
+                "yyyy-MM-dd HH:mm:ss", "# ?/?", "#,##0.00;[Red](#,##0.00);\"zero\"", "[>=100]\"big\" 0;[<0]\"neg\" 0;0.0", "0.0%;-0.0%"};
+        double[] values = {0, 1.5, -2.25, 0.125, 43000.75, 1234567.891, 1e16, 0.0001234, -1};
+        DataFormatter formatter = new DataFormatter();
+        DataFormatter expected = new DataFormatter();
+        for (boolean date1904 : new boolean[]{false, true}) {
+            CellNumberFormat[] formats = new CellNumberFormat[formatIndexes.length];
+            for (int i = 0; i < formats.length; i++) {
+                formats[i] = CellNumberFormat.compile(formatIndexes[i], formatStrings[i], formatter, date1904);
+                Assert.assertEquals(DateUtil.isADateFormat(formatIndexes[i], formatStrings[i]), formats[i].isDate());
+            }
+            // 不同格式交替使用同一个格式化器
+            for (double value : values) {
+                for (int i = 0; i < formats.length; i++) {
+                    Assert.assertEquals(formatStrings[i] + ":" + value, expected.formatRawCellContents(value, formatIndexes[i], formatStrings[i], date1904), formats[i].format(value));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void numericFastPathTest() throws IOException {
+        // 与BigDecimal转换结果一致
+        String[] texts = {"0", "-0", "+12", "007", "123456789", "-2147483648", "2147483648", "9223372036854775807", "99999999999999999999", "12.7", "-12.7",
+                "1e3", "1E-2", ".5", "5.", "-0.0", " 1", "1d", "NaN", "0x10", "", "-", "1e", "12345678901234567890.123", "3.4028235e39"};
+        for (String text : texts) {
+            BigDecimal d = readReference(text);
+            Assert.assertEquals(text, d == null ? null : d.intValue(), ExcelReadUtils.readInteger(text));
+            Assert.assertEquals(text, d == null ? null : d.longValue(), ExcelReadUtils.readLong(text));
+            Assert.assertEquals(text, d == null ? null : d.doubleValue(), ExcelReadUtils.readDouble(text, -1));
+            Assert.assertEquals(text, d == null ? null : d.setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue(), ExcelReadUtils.readDouble(text, 1));
+        }
+        double[] numbers = {0, -0d, 1.9999999999999998, -2.5, 2147483647.9, 2147483648d, -2147483648.5, -2147483649d, 9.2233720368547758E18, -9.3e18, 1e300, 12345.6789};
+        for (double number : numbers) {
+            BigDecimal d = BigDecimal.valueOf(number);
+            Assert.assertEquals(String.valueOf(number), d.intValue(), ExcelReadUtils.toInt(number));
+            Assert.assertEquals(String.valueOf(number), d.longValue(), ExcelReadUtils.toLong(number));
+            // 数字单元格原始值读取
+            Assert.assertEquals(String.valueOf(number), Integer.valueOf(d.intValue()), ExcelReadUtils.read(int.class, number, false, null));
+            Assert.assertEquals(String.valueOf(number), Long.valueOf(d.longValue()), ExcelReadUtils.read(Long.class, number, false, null));
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet().createRow(0);
+            for (double number : numbers) {
+                Cell cell = row.createCell(0);
+                cell.setCellValue(number);
+                BigDecimal d = BigDecimal.valueOf(number);
+                Assert.assertEquals(Integer.valueOf(d.intValue()), ExcelReadUtils.readInteger(cell));
+                Assert.assertEquals(Long.valueOf(d.longValue()), ExcelReadUtils.readLong(cell));
+                Assert.assertEquals(Double.valueOf(d.doubleValue()), ExcelReadUtils.readDouble(cell, -1));
+                Assert.assertEquals(Double.valueOf(d.setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue()), ExcelReadUtils.readDouble(cell, 2));
+                // 写入：不保留小数位时原值写入，保留小数位时按二进制精确值四舍五入
+                ExcelWriteUtils.writeDouble(cell, number);
+                Assert.assertEquals(new BigDecimal(number).doubleValue(), cell.getNumericCellValue(), 0);
+                Assert.assertEquals(Double.doubleToLongBits(new BigDecimal(number).doubleValue()), Double.doubleToLongBits(cell.getNumericCellValue()));
+            }
+            Cell cell = row.createCell(1);
+            ExcelWriteUtils.writeDouble(cell, 2.675, 2);
+            Assert.assertEquals(2.67, cell.getNumericCellValue(), 0);
+            ExcelWriteUtils.writeDouble(cell, 0.125, 2);
+            Assert.assertEquals(0.13, cell.getNumericCellValue(), 0);
+        }
+    }
+
+    private BigDecimal readReference(String text) {
+        try {
+            return new BigDecimal(text);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void stylePoolTest() throws IOException {
+        for (ExcelVersion version : ExcelVersion.values()) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.write(os, version, datas, datas);
+            try (Workbook workbook = version == ExcelVersion.XLS ? new HSSFWorkbook(new ByteArrayInputStream(os.toByteArray())) : new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                Sheet sheet = workbook.getSheetAt(0);
+                Row title = sheet.getRow(0);
+                Row first = sheet.getRow(1);
+                for (int column = 0; column < titles.size(); column++) {
+                    // 同一列的内容单元格共用一个样式
+                    for (int row = 2; row <= datas.size(); row++) {
+                        Assert.assertEquals(first.getCell(column).getCellStyle().getIndex(), sheet.getRow(row).getCell(column).getCellStyle().getIndex());
+                    }
+                    Assert.assertTrue(workbook.getFontAt(title.getCell(column).getCellStyle().getFontIndex()).getBold());
+                    Assert.assertEquals(HorizontalAlignment.CENTER, title.getCell(column).getCellStyle().getAlignmentEnum());
+                    Assert.assertEquals(BorderStyle.THIN, first.getCell(column).getCellStyle().getBorderBottomEnum());
+                    Assert.assertEquals(FillPatternType.SOLID_FOREGROUND, first.getCell(column).getCellStyle().getFillPatternEnum());
+                }
+                Assert.assertEquals("0", first.getCell(0).getCellStyle().getDataFormatString());
+                Assert.assertEquals("0", first.getCell(3).getCellStyle().getDataFormatString());
+                Assert.assertEquals("yyyy-MM-dd HH:mm:ss", first.getCell(2).getCellStyle().getDataFormatString());
+                Assert.assertEquals("General", first.getCell(1).getCellStyle().getDataFormatString());
+                // 标题字体每个sheet只创建一个
+                Assert.assertEquals(title.getCell(0).getCellStyle().getFontIndex(), title.getCell(6).getCellStyle().getFontIndex());
+                // 每个sheet每列只有一个标题样式、一个内容样式，写入引擎不再额外创建
+                try (Workbook empty = version == ExcelVersion.XLS ? new HSSFWorkbook() : new XSSFWorkbook()) {
+                    Assert.assertEquals(empty.getNumCellStyles() + 2 * 2 * titles.size(), workbook.getNumCellStyles());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void xlsxStreamWriterTest() throws Exception {
+        File file = new File(xlsxPathTo + ".direct.xlsx");
+        file.delete();
+        SheetSchema autoWidth = new SheetSchema(Person.class);
+        autoWidth.getSheetWriteSchemaParams().setAutoWidth(true);
+        autoWidth.getSheetWriteSchemaParams().setWriteSheetName("auto <width>");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            ExcelWriter.writeXlsxDirect(fos, new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonDataGetter(datas)),
+                    new SchemaSheetWriter<>(autoWidth, new PersonDataGetter(datas)), null);
+        }
+        try {
+            check(ExcelReader.readBySheetIndex(file.getPath(), 0, Person.class));
+            check(ExcelReader.readBySheetIndex(file.getPath(), 1, Person.class));
+            try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+                Assert.assertEquals(3, workbook.getNumberOfSheets());
+                Assert.assertEquals("auto <width>", workbook.getSheetName(1));
+                Sheet sheet = workbook.getSheetAt(0);
+                Assert.assertTrue(workbook.getFontAt(sheet.getRow(0).getCell(0).getCellStyle().getFontIndex()).getBold());
+                Assert.assertEquals(BorderStyle.THIN, sheet.getRow(1).getCell(0).getCellStyle().getBorderLeftEnum());
+                Assert.assertTrue(DateUtil.isCellDateFormatted(sheet.getRow(1).getCell(2)));
+                Assert.assertEquals(datas.get(0).getCreateTime(), (long) sheet.getRow(1).getCell(3).getNumericCellValue());
+                Assert.assertNotEquals(workbook.getSheetAt(1).getDefaultColumnWidth() * 256, workbook.getSheetAt(1).getColumnWidth(1));
+                Assert.assertNull(workbook.getSheetAt(2).getRow(0));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void xlsxStreamRowTest() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.writeXlsxDirect(os, new NormalWriter(titles, datas) {
+            @Override
+            public void writeCell(Cell cell, int rowIndex, int columnIndex) {
+                super.writeCell(cell, rowIndex, columnIndex);
+                // 行高在任意单元格中设置均可
+                if (rowIndex == 1 && columnIndex == 3) {
+                    cell.getRow().setHeightInPoints(30);
+                } else if (rowIndex == 2) {
+                    Assert.assertEquals(2, cell.getRow().getRowNum());
+                    cell.getRow().setZeroHeight(true);
+                }
+            }
+        });
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Assert.assertEquals(30f, sheet.getRow(1).getHeightInPoints(), 0);
+            Assert.assertFalse(sheet.getRow(1).getZeroHeight());
+            Assert.assertTrue(sheet.getRow(2).getZeroHeight());
+            Assert.assertEquals(sheet.getDefaultRowHeightInPoints(), sheet.getRow(3).getHeightInPoints(), 0);
+            Assert.assertEquals(datas.get(0).getName(), sheet.getRow(1).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void xlsxStreamFlushTest() {
+        List<Person> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            many.addAll(datas);
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final long[] sizes = new long[2];
+        ExcelWriter.writeXlsxStream(os, 100, new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonDataGetter(many) {
+            @Override
+            public Person getData(int rowIndex) {
+                if (rowIndex == 0) {
+                    sizes[0] = os.size();
+                } else if (rowIndex == 150) {
+                    sizes[1] = os.size();
+                }
+                return super.getData(rowIndex);
+            }
+        }));
+        // 写完前客户端已收到文件头与第一段行数据
+        Assert.assertTrue(sizes[0] > 0);
+        Assert.assertTrue(sizes[1] > sizes[0]);
+        List<Person> list = ExcelReader.readFirstSheet(new ByteArrayInputStream(os.toByteArray()), ExcelVersion.XLSX, Person.class);
+        Assert.assertEquals(many.size(), list.size());
+        check(list);
+    }
+
+    @Test
+    public void columnWidthEstimatorTest() throws IOException {
+        Assert.assertEquals(5, ColumnWidthEstimator.width("abc 1"));
+        Assert.assertEquals(10, ColumnWidthEstimator.width("是否戴眼镜"));
+        Assert.assertEquals(4, ColumnWidthEstimator.width("ＡＢ\nab\tc"));
+        Assert.assertEquals(0, ColumnWidthEstimator.width((String) null));
+        Assert.assertEquals(1, ColumnWidthEstimator.width(0L));
+        Assert.assertEquals(20, ColumnWidthEstimator.width(Long.MIN_VALUE));
+        Assert.assertEquals(String.valueOf(Long.MAX_VALUE).length(), ColumnWidthEstimator.width(Long.MAX_VALUE));
+        Assert.assertEquals(7, ColumnWidthEstimator.width(-12.5, 3));
+        Assert.assertEquals(4, ColumnWidthEstimator.width(12.5, -1));
+        Assert.assertEquals(9, ColumnWidthEstimator.width(new BigDecimal("-123.4567"), -1));
+        Assert.assertEquals(6, ColumnWidthEstimator.width(new BigDecimal("0.001"), 4));
+
+        ColumnWidthEstimator estimator = new ColumnWidthEstimator(2, 3, 10);
+        Assert.assertTrue(estimator.isSampled(2));
+        Assert.assertFalse(estimator.isSampled(4));
+        Assert.assertTrue(estimator.isSampled(13));
+        Assert.assertFalse(new ColumnWidthEstimator(1, 3, 0).isSampled(13));
+        estimator.measure(0, 8);
+        estimator.measure(0, 4);
+        estimator.measure(1, 1000);
+        Assert.assertEquals(8 * 256 * 125 / 100, estimator.getColumnWidth(0));
+        Assert.assertEquals(ColumnWidthEstimator.MAX_WIDTH, estimator.getColumnWidth(1));
+
+        SheetSchema schema = new SheetSchema(Person.class);
+        schema.getSheetWriteSchemaParams().setAutoWidth(true);
+        for (ExcelVersion version : ExcelVersion.values()) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.write(os, version, new SchemaSheetWriter<>(schema, new PersonDataGetter(datas)));
+            checkAutoWidth(version == ExcelVersion.XLS ? new HSSFWorkbook(new ByteArrayInputStream(os.toByteArray())) : new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray())));
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.writeXlsxDirect(os, new SchemaSheetWriter<>(schema, new PersonDataGetter(datas)));
+        checkAutoWidth(new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray())));
+
+        // 只估算标题行
+        schema.getSheetWriteSchemaParams().setAutoWidthSampleRows(0);
+        os = new ByteArrayOutputStream();
+        ExcelWriter.writeXlsxDirect(os, new SchemaSheetWriter<>(schema, new PersonDataGetter(datas)));
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            Assert.assertEquals(4 * 256 * 125 / 100, workbook.getSheetAt(0).getColumnWidth(2));
+        }
+    }
+
+    private void checkAutoWidth(Workbook workbook) throws IOException {
+        try (Workbook wb = workbook) {
+            Sheet sheet = wb.getSheetAt(0);
+            // 日期列按格式"yyyy-MM-dd HH:mm:ss"估算，长于标题
+            Assert.assertEquals(19 * 256 * 125 / 100, sheet.getColumnWidth(2));
+            // 布尔列标题"是否戴眼镜"长于值
+            Assert.assertEquals(10 * 256 * 125 / 100, sheet.getColumnWidth(5));
+        }
+    }
+
+    @Test
+    public void xlsxParallelTest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            ExcelWriter.writeXlsxDirect(sequential, parallelSheets());
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            ExcelWriter.writeXlsxParallel(parallel, executor, parallelSheets());
+            // 与依次生成的文件逐字节一致(条目时间固定)
+            Assert.assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+            try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(parallel.toByteArray()))) {
+                Assert.assertEquals(5, workbook.getNumberOfSheets());
+                Assert.assertEquals("auto width", workbook.getSheetName(1));
+                Assert.assertNull(workbook.getSheetAt(2).getRow(0));
+                Assert.assertEquals(datas.get(0).getName(), workbook.getSheetAt(3).getRow(0).getCell(1).getStringCellValue());
+            }
+
+            // 某个sheet生成失败时抛出其异常，不阻塞其他sheet
+            SheetWriter[] handlers = parallelSheets();
+            handlers[1] = new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonDataGetter(datas) {
+                @Override
+                public Person getData(int rowIndex) {
+                    throw new IllegalStateException("query failed");
+                }
+            });
+            try {
+                ExcelWriter.writeXlsxParallel(new ByteArrayOutputStream(), executor, handlers);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("query failed", e.getMessage());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private SheetWriter[] parallelSheets() {
+        SheetSchema autoWidth = new SheetSchema(Person.class);
+        autoWidth.getSheetWriteSchemaParams().setAutoWidth(true);
+        autoWidth.getSheetWriteSchemaParams().setWriteSheetName("auto width");
+        SheetSchema noTitle = new SheetSchema(Person.class);
+        noTitle.getSheetWriteSchemaParams().setWriteTile(false);
+        noTitle.getSheetWriteSchemaParams().setWriteSheetName("no title");
+        return new SheetWriter[]{new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonDataGetter(datas)),
+                new SchemaSheetWriter<>(autoWidth, new PersonDataGetter(datas)), null,
+                new SchemaSheetWriter<>(noTitle, new PersonDataGetter(datas)),
+                new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonDataGetter(datas))};
+    }
+
     @Test
     public void annSchemaXlsTest() {
         ExcelWriter.write(xlsPath, new PersonDataGetter(datas));
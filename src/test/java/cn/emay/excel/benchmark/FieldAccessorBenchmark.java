@@ -0,0 +1,82 @@
+package cn.emay.excel.benchmark;
+
+import cn.emay.excel.common.Person;
+import cn.emay.excel.utils.FieldAccessor;
+
+import java.lang.reflect.Field;
+
+/**
+ * 字段读写性能对比(ns/op)：反射 vs {@link FieldAccessor}<br/>
+ * 参数: [每轮次数，默认20000000]
+ *
+ * @author Frank
+ */
+public class FieldAccessorBenchmark {
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int times = args.length > 0 ? Integer.parseInt(args[0]) : 20000000;
+        Field createTime = Person.class.getDeclaredField("createTime");
+        Field age = Person.class.getDeclaredField("age");
+        createTime.setAccessible(true);
+        age.setAccessible(true);
+        FieldAccessor createTimeAccessor = FieldAccessor.of(createTime);
+        FieldAccessor ageAccessor = FieldAccessor.of(age);
+        Person person = new Person();
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                createTime.set(person, (long) i);
+            }
+            print(round, "reflect set(long)", begin, times);
+
+            begin = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                createTimeAccessor.set(person, (long) i);
+            }
+            print(round, "accessor set(Object)", begin, times);
+
+            begin = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                createTimeAccessor.setLong(person, i);
+            }
+            print(round, "accessor setLong", begin, times);
+
+            begin = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                age.set(person, i & 127);
+            }
+            print(round, "reflect set(Integer)", begin, times);
+
+            begin = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                ageAccessor.setInt(person, i & 127);
+            }
+            print(round, "accessor setInt(Integer)", begin, times);
+
+            begin = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < times; i++) {
+                sum += (Long) createTime.get(person);
+            }
+            sink += sum;
+            print(round, "reflect get", begin, times);
+
+            begin = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < times; i++) {
+                sum += (Long) createTimeAccessor.get(person);
+            }
+            sink += sum;
+            print(round, "accessor get", begin, times);
+        }
+        System.out.println("sink=" + sink);
+    }
+
+    private static void print(int round, String name, long begin, int times) {
+        long cost = System.nanoTime() - begin;
+        System.out.printf("round %d %-28s %.2f ns/op%n", round, name, cost * 1.0 / times);
+    }
+
+}
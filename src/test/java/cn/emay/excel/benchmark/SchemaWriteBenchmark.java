@@ -0,0 +1,77 @@
+package cn.emay.excel.benchmark;
+
+import cn.emay.excel.common.ExcelVersion;
+import cn.emay.excel.common.Person;
+import cn.emay.excel.common.schema.base.SheetSchemaCache;
+import cn.emay.excel.write.ExcelWriter;
+import cn.emay.excel.write.data.SheetDataGetter;
+import cn.emay.excel.write.writer.impl.SchemaSheetWriter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Schema写入性能(rows/sec)：带边框、标题/内容底色、日期与整数格式的Person数据<br/>
+ * 输出到只计数的输出流，不计磁盘写入<br/>
+ * 参数: [行数，默认1000000]
+ *
+ * @author Frank
+ */
+public class SchemaWriteBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        for (int round = 0; round < 2; round++) {
+            XlsxWriteBenchmark.CountOutputStream os = new XlsxWriteBenchmark.CountOutputStream();
+            long begin = System.nanoTime();
+            ExcelWriter.write(os, ExcelVersion.XLSX, new PersonGetter(rows));
+            print("round " + round + " SXSSF", begin, rows, os.bytes);
+
+            os = new XlsxWriteBenchmark.CountOutputStream();
+            begin = System.nanoTime();
+            ExcelWriter.writeXlsxDirect(os, new SchemaSheetWriter<>(SheetSchemaCache.get(Person.class), new PersonGetter(rows)));
+            print("round " + round + " DIRECT", begin, rows, os.bytes);
+        }
+    }
+
+    private static void print(String name, long begin, int rows, long bytes) {
+        long cost = System.nanoTime() - begin;
+        System.out.printf("%-24s rows=%d bytes=%d cost=%dms rows/sec=%.0f%n", name, rows, bytes, cost / 1000000, rows * 1e9 / cost);
+    }
+
+    /**
+     * 按行号生成数据
+     */
+    static class PersonGetter implements SheetDataGetter<Person> {
+
+        private final int rows;
+        private final Person person = new Person();
+
+        PersonGetter(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Person getData(int rowIndex) {
+            person.setAge(rowIndex % 100);
+            person.setName("name-" + rowIndex);
+            person.setBrith(new Date(1500000000000L + rowIndex * 1000L));
+            person.setCreateTime(1500000000000L + rowIndex);
+            person.setScore(rowIndex / 7.0);
+            person.setHasGlass((rowIndex & 1) == 0);
+            person.setMoney(BigDecimal.valueOf(rowIndex, 2));
+            return person;
+        }
+
+        @Override
+        public boolean hasData(int rowIndex) {
+            return rowIndex < rows;
+        }
+
+        @Override
+        public Class<Person> getDataClass() {
+            return Person.class;
+        }
+    }
+
+}
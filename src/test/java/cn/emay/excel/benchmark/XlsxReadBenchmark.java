@@ -0,0 +1,172 @@
+package cn.emay.excel.benchmark;
+
+import cn.emay.excel.read.core.XlsxReader;
+import cn.emay.excel.read.reader.SheetReader;
+import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.write.ExcelWriter;
+import cn.emay.excel.write.writer.SheetWriter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * XLSX读取性能对比(cells/sec)<br/>
+ * 参数: [行数，默认200000] [列数，默认20]
+ *
+ * @author Frank
+ */
+public class XlsxReadBenchmark {
+
+    private static final String[] CITIES = {"北京", "上海", "广州", "深圳", "杭州", "成都", "武汉", "西安"};
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        File file = File.createTempFile("xlsx-read-benchmark", ".xlsx");
+        try {
+            generate(file, rows, columns);
+            for (int round = 0; round < 3; round++) {
+                for (XlsxReader.SheetEngine engine : XlsxReader.SheetEngine.values()) {
+                    XlsxReader reader = new XlsxReader();
+                    reader.setSheetEngine(engine);
+                    run("round " + round + " " + engine, reader, file);
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * 读取一次并输出速度
+     *
+     * @param name   名字
+     * @param reader 读取器
+     * @param file   文件
+     */
+    static void run(String name, XlsxReader reader, File file) {
+        CountSheetReader counter = new CountSheetReader();
+        long begin = System.nanoTime();
+        reader.readBySheetIndex(file, 0, counter);
+        long cost = System.nanoTime() - begin;
+        System.out.printf("%-32s cells=%d cost=%dms cells/sec=%.0f%n", name, counter.cells, cost / 1000000, counter.cells * 1e9 / cost);
+    }
+
+    /**
+     * 生成测试文件(共享字符串)
+     *
+     * @param file    文件
+     * @param rows    行数
+     * @param columns 列数
+     */
+    static void generate(File file, final int rows, final int columns) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(null, 1000, false, true); FileOutputStream fos = new FileOutputStream(file)) {
+            ExcelWriter.write(workbook, new SheetWriter() {
+
+                @Override
+                public String getSheetName() {
+                    return "benchmark";
+                }
+
+                @Override
+                public int getMaxColumnIndex() {
+                    return columns - 1;
+                }
+
+                @Override
+                public boolean isAutoWidth() {
+                    return false;
+                }
+
+                @Override
+                public void begin(int sheetIndex) {
+                }
+
+                @Override
+                public boolean hasRow(int rowIndex) {
+                    return rowIndex < rows;
+                }
+
+                @Override
+                public void beginRow(int rowIndex) {
+                }
+
+                @Override
+                public void writeCell(Cell cell, int rowIndex, int columnIndex) {
+                    switch (columnIndex % 4) {
+                        case 0:
+                            ExcelWriteUtils.writeLong(cell, rowIndex * 31L + columnIndex);
+                            break;
+                        case 1:
+                            ExcelWriteUtils.writeString(cell, CITIES[(rowIndex + columnIndex) % CITIES.length]);
+                            break;
+                        case 2:
+                            ExcelWriteUtils.writeDouble(cell, rowIndex / 7.0);
+                            break;
+                        default:
+                            ExcelWriteUtils.writeString(cell, "name-" + rowIndex);
+                            break;
+                    }
+                }
+
+                @Override
+                public void endRow(int rowIndex) {
+                }
+
+                @Override
+                public void end(int sheetIndex) {
+                }
+            });
+            workbook.write(fos);
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * 计数读取器
+     */
+    static class CountSheetReader implements SheetReader {
+
+        long cells;
+
+        @Override
+        public int getStartReadRowIndex() {
+            return 0;
+        }
+
+        @Override
+        public int getEndReadRowIndex() {
+            return -1;
+        }
+
+        @Override
+        public void begin(int sheetIndex, String sheetName) {
+        }
+
+        @Override
+        public void beginRow(int rowIndex) {
+        }
+
+        @Override
+        public void handleXlsCell(int rowIndex, int columnIndex, Cell cell) {
+            cells++;
+        }
+
+        @Override
+        public void handleXlsxCell(int rowIndex, int columnIndex, String value) {
+            cells++;
+        }
+
+        @Override
+        public void endRow(int rowIndex) {
+        }
+
+        @Override
+        public void end(int sheetIndex, String sheetName) {
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package cn.emay.excel.benchmark;
+
+import cn.emay.excel.common.ExcelVersion;
+import cn.emay.excel.utils.ExcelWriteUtils;
+import cn.emay.excel.write.ExcelWriter;
+import cn.emay.excel.write.writer.SheetWriter;
+import org.apache.poi.ss.usermodel.Cell;
+
+import java.io.OutputStream;
+
+/**
+ * XLSX写入性能对比(cells/sec)：SXSSF vs 直写<br/>
+ * 输出到只计数的输出流，不计磁盘写入<br/>
+ * 参数: [行数，默认200000] [列数，默认20]
+ *
+ * @author Frank
+ */
+public class XlsxWriteBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        for (int round = 0; round < 3; round++) {
+            CountOutputStream os = new CountOutputStream();
+            long begin = System.nanoTime();
+            ExcelWriter.write(os, ExcelVersion.XLSX, ExcelWriter.DEFAULT_CACHE_NUM, new BenchmarkSheetWriter(rows, columns));
+            print("round " + round + " SXSSF", begin, rows, columns, os.bytes);
+
+            os = new CountOutputStream();
+            begin = System.nanoTime();
+            ExcelWriter.writeXlsxDirect(os, new BenchmarkSheetWriter(rows, columns));
+            print("round " + round + " DIRECT", begin, rows, columns, os.bytes);
+        }
+    }
+
+    private static void print(String name, long begin, int rows, int columns, long bytes) {
+        long cost = System.nanoTime() - begin;
+        long cells = (long) rows * columns;
+        System.out.printf("%-24s cells=%d bytes=%d cost=%dms cells/sec=%.0f%n", name, cells, bytes, cost / 1000000, cells * 1e9 / cost);
+    }
+
+    /**
+     * 只计数的输出流
+     */
+    static class CountOutputStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    /**
+     * 生成测试数据的写入处理器
+     */
+    static class BenchmarkSheetWriter implements SheetWriter {
+
+        private static final String[] CITIES = {"北京", "上海", "广州", "深圳", "杭州", "成都", "武汉", "西安"};
+
+        private final int rows;
+        private final int columns;
+
+        BenchmarkSheetWriter(int rows, int columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        @Override
+        public String getSheetName() {
+            return "benchmark";
+        }
+
+        @Override
+        public int getMaxColumnIndex() {
+            return columns - 1;
+        }
+
+        @Override
+        public boolean isAutoWidth() {
+            return false;
+        }
+
+        @Override
+        public void begin(int sheetIndex) {
+        }
+
+        @Override
+        public boolean hasRow(int rowIndex) {
+            return rowIndex < rows;
+        }
+
+        @Override
+        public void beginRow(int rowIndex) {
+        }
+
+        @Override
+        public void writeCell(Cell cell, int rowIndex, int columnIndex) {
+            switch (columnIndex % 4) {
+                case 0:
+                    ExcelWriteUtils.writeLong(cell, rowIndex * 31L + columnIndex);
+                    break;
+                case 1:
+                    ExcelWriteUtils.writeString(cell, CITIES[(rowIndex + columnIndex) % CITIES.length]);
+                    break;
+                case 2:
+                    ExcelWriteUtils.writeDouble(cell, rowIndex / 7.0);
+                    break;
+                default:
+                    ExcelWriteUtils.writeString(cell, "name-" + rowIndex);
+                    break;
+            }
+        }
+
+        @Override
+        public void endRow(int rowIndex) {
+        }
+
+        @Override
+        public void end(int sheetIndex) {
+        }
+    }
+
+}